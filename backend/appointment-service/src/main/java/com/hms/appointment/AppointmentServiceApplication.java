@@ -3,9 +3,11 @@ package com.hms.appointment;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ComponentScan(basePackages = {"com.hms.appointment", "com.hms.common"})
+@EnableScheduling
 public class AppointmentServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(AppointmentServiceApplication.class, args);
@@ -1,6 +1,7 @@
 package com.hms.appointment.config;
 
 import com.hms.common.security.JwtAuthFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -32,7 +33,15 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Async and error dispatches re-enter the chain without JwtAuthFilter, which runs once per
+                // request; the original dispatch was already authorised, so they must not be denied as anonymous
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                .requestMatchers(HttpMethod.POST, "/api/appointments/stats/rebuild").hasRole("SUPER_ADMIN")
+                // Local storage objects are authorised by their signed URL, like presigned S3/MinIO URLs
+                .requestMatchers(HttpMethod.GET, "/api/images/**").permitAll()
+                .requestMatchers(HttpMethod.HEAD, "/api/images/**").permitAll()
+                .requestMatchers(HttpMethod.PUT, "/api/images/**").permitAll()
                 .anyRequest().authenticated()
             )
             .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
@@ -0,0 +1,70 @@
+package com.hms.appointment.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class StorageConfig {
+
+    @Value("${storage.upload.threads:8}")
+    private int threads;
+
+    @Value("${storage.upload.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${storage.derivatives.threads:2}")
+    private int derivativeThreads;
+
+    @Value("${storage.derivatives.queue-capacity:100}")
+    private int derivativeQueueCapacity;
+
+    // Bounded on both threads and queue: when storage is slow, new uploads are rejected
+    // instead of piling up request memory
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService storageUploadExecutor(ObjectProvider<MeterRegistry> meterRegistry) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "storage-upload-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        meterRegistry.ifAvailable(registry ->
+                ExecutorServiceMetrics.monitor(registry, executor, "storage-upload", List.of()));
+        return executor;
+    }
+
+    // Image decoding is CPU and memory heavy, so derivatives get a small pool of their own
+    // rather than competing with uploads
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService imageDerivativeExecutor(ObjectProvider<MeterRegistry> meterRegistry) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(derivativeThreads, derivativeThreads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(derivativeQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivative-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        meterRegistry.ifAvailable(registry ->
+                ExecutorServiceMetrics.monitor(registry, executor, "image-derivative", List.of()));
+        return executor;
+    }
+}
@@ -1,17 +1,35 @@
 package com.hms.appointment.controller;
 
 import com.hms.appointment.dto.AppointmentDto;
+import com.hms.appointment.dto.AppointmentPageDto;
 import com.hms.appointment.dto.AppointmentStatsDto;
-import com.hms.appointment.entity.Appointment;
+import com.hms.appointment.dto.ImageConfirmRequest;
+import com.hms.appointment.dto.ImageUploadRequest;
+import com.hms.appointment.dto.PresignedUrlDto;
+import com.hms.appointment.dto.UploadPartDto;
+import com.hms.appointment.dto.UploadSessionDto;
+import com.hms.appointment.dto.UploadSessionRequest;
 import com.hms.appointment.service.AppointmentService;
+import com.hms.appointment.service.ChunkedUploadService;
+import com.hms.appointment.service.ImageDerivativeService;
 import com.hms.common.dto.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/appointments")
@@ -19,9 +37,12 @@ import java.util.Map;
 public class AppointmentController {
 
     private final AppointmentService appointmentService;
+    private final ChunkedUploadService chunkedUploadService;
 
-    public AppointmentController(AppointmentService appointmentService) {
+    public AppointmentController(AppointmentService appointmentService,
+            ChunkedUploadService chunkedUploadService) {
         this.appointmentService = appointmentService;
+        this.chunkedUploadService = chunkedUploadService;
     }
 
     @GetMapping
@@ -29,40 +50,155 @@ public class AppointmentController {
         return ResponseEntity.ok(ApiResponse.success(appointmentService.getByCidDto(cid)));
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<ApiResponse<AppointmentPageDto>> getPage(
+            @RequestParam String cid,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(ApiResponse.success(
+                appointmentService.getPage(cid, page, size, status, from, to)));
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<ApiResponse<AppointmentPageDto>> scroll(
+            @RequestParam String cid,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDateTime,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(ApiResponse.success(
+                appointmentService.getPageAfter(cid, cursor, afterId, afterDateTime, size, status, from, to)));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam String cid,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        StreamingResponseBody body = appointmentService.export(cid, format, from, to, gzip);
+        boolean csv = "csv".equalsIgnoreCase(format);
+        String filename = "appointments-" + cid + (csv ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : csv ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                : MediaType.parseMediaType("application/x-ndjson;charset=UTF-8");
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(filename).build().toString())
+                .body(body);
+    }
+
     @GetMapping("/doctor/{doctorId}")
-    public ResponseEntity<ApiResponse<List<Appointment>>> getByDoctor(
+    public ResponseEntity<ApiResponse<List<AppointmentDto>>> getByDoctor(
             @RequestParam String cid, @PathVariable Long doctorId) {
         return ResponseEntity.ok(ApiResponse.success(appointmentService.getByDoctor(cid, doctorId)));
     }
 
+    @GetMapping("/doctor/{doctorId}/schedule")
+    public ResponseEntity<ApiResponse<List<AppointmentDto>>> getDoctorSchedule(
+            @RequestParam String cid,
+            @PathVariable Long doctorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(ApiResponse.success(
+                appointmentService.getDoctorSchedule(cid, doctorId, from, to)));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Appointment>> getById(@PathVariable Long id) {
-        return ResponseEntity.ok(ApiResponse.success(appointmentService.getById(id)));
+    public ResponseEntity<ApiResponse<AppointmentDto>> getById(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(appointmentService.getDetail(id)));
     }
 
     @PostMapping
-    public ResponseEntity<ApiResponse<Appointment>> create(@Valid @RequestBody AppointmentDto dto) {
+    public ResponseEntity<ApiResponse<AppointmentDto>> create(@Valid @RequestBody AppointmentDto dto) {
         return ResponseEntity.ok(ApiResponse.success("Appointment booked", appointmentService.create(dto)));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ApiResponse<Appointment>> update(@PathVariable Long id,
+    public ResponseEntity<ApiResponse<AppointmentDto>> update(@PathVariable Long id,
             @Valid @RequestBody AppointmentDto dto) {
         return ResponseEntity.ok(ApiResponse.success("Appointment updated", appointmentService.update(id, dto)));
     }
 
     @PutMapping("/{id}/status")
-    public ResponseEntity<ApiResponse<Appointment>> updateStatus(
+    public ResponseEntity<ApiResponse<AppointmentDto>> updateStatus(
             @PathVariable Long id, @RequestBody Map<String, String> body) {
         return ResponseEntity.ok(ApiResponse.success("Status updated",
                 appointmentService.updateStatus(id, body.get("status"))));
     }
 
     @PostMapping("/{id}/images")
-    public ResponseEntity<ApiResponse<Appointment>> uploadImages(
+    public CompletableFuture<ResponseEntity<ApiResponse<AppointmentDto>>> uploadImages(
             @PathVariable Long id, @RequestParam("files") MultipartFile[] files) {
-        return ResponseEntity.ok(ApiResponse.success("Images uploaded",
-                appointmentService.uploadImages(id, files)));
+        return appointmentService.uploadImages(id, files)
+                .thenApply(dto -> ResponseEntity.ok(ApiResponse.success("Images uploaded", dto)));
+    }
+
+    @PostMapping("/{id}/images/presign")
+    public ResponseEntity<ApiResponse<PresignedUrlDto>> presignImageUpload(
+            @PathVariable Long id, @Valid @RequestBody ImageUploadRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(
+                appointmentService.presignImageUpload(id, request.getFileName(), request.getContentType())));
+    }
+
+    @PostMapping("/{id}/images/confirm")
+    public ResponseEntity<ApiResponse<AppointmentDto>> confirmImage(
+            @PathVariable Long id, @Valid @RequestBody ImageConfirmRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Image recorded",
+                appointmentService.confirmImage(id, request.getObjectKey())));
+    }
+
+    // variant=THUMBNAIL or MEDIUM fetches the downscaled copy; omitted, the original
+    @GetMapping("/{id}/images/{slot}/url")
+    public ResponseEntity<ApiResponse<PresignedUrlDto>> presignImageDownload(
+            @PathVariable Long id, @PathVariable int slot,
+            @RequestParam(required = false) ImageDerivativeService.Variant variant) {
+        return ResponseEntity.ok(ApiResponse.success(appointmentService.presignImageDownload(id, slot, variant)));
+    }
+
+    @PostMapping("/{id}/uploads")
+    public ResponseEntity<ApiResponse<UploadSessionDto>> startUpload(
+            @PathVariable Long id, @Valid @RequestBody UploadSessionRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(chunkedUploadService.start(
+                id, request.getFileName(), request.getContentType(), request.getSize())));
+    }
+
+    @GetMapping("/{id}/uploads/{sessionId}")
+    public ResponseEntity<ApiResponse<UploadSessionDto>> getUpload(
+            @PathVariable Long id, @PathVariable String sessionId) {
+        return ResponseEntity.ok(ApiResponse.success(chunkedUploadService.get(id, sessionId)));
+    }
+
+    // Raw request body (not multipart), streamed straight into the storage part
+    @PutMapping(value = "/{id}/uploads/{sessionId}/parts/{partNumber}",
+            consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<ApiResponse<UploadPartDto>> uploadPart(
+            @PathVariable Long id, @PathVariable String sessionId, @PathVariable int partNumber,
+            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(ApiResponse.success(chunkedUploadService.uploadPart(
+                id, sessionId, partNumber, request.getInputStream(), request.getContentLengthLong())));
+    }
+
+    @PostMapping("/{id}/uploads/{sessionId}/complete")
+    public ResponseEntity<ApiResponse<AppointmentDto>> completeUpload(
+            @PathVariable Long id, @PathVariable String sessionId) {
+        return ResponseEntity.ok(ApiResponse.success("Upload completed",
+                chunkedUploadService.complete(id, sessionId)));
+    }
+
+    @DeleteMapping("/{id}/uploads/{sessionId}")
+    public ResponseEntity<ApiResponse<Void>> abortUpload(
+            @PathVariable Long id, @PathVariable String sessionId) {
+        chunkedUploadService.abort(id, sessionId);
+        return ResponseEntity.ok(ApiResponse.success("Upload aborted", null));
     }
 
     @DeleteMapping("/{id}")
@@ -75,4 +211,10 @@ public class AppointmentController {
     public ResponseEntity<ApiResponse<AppointmentStatsDto>> getStats(@RequestParam String cid) {
         return ResponseEntity.ok(ApiResponse.success(appointmentService.getStats(cid)));
     }
+
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<ApiResponse<Void>> rebuildStats() {
+        appointmentService.rebuildStats();
+        return ResponseEntity.ok(ApiResponse.success("Appointment stats rebuilt", null));
+    }
 }
@@ -0,0 +1,180 @@
+package com.hms.appointment.controller;
+
+import com.hms.appointment.service.LocalStorageService;
+import com.hms.common.dto.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Serves and accepts objects of {@link LocalStorageService} through signed URLs. Reads use
+ * Tomcat's sendfile when the connector supports it, and {@link FileChannel#transferTo} otherwise.
+ */
+@RestController
+@RequestMapping("/api/images")
+@ConditionalOnProperty(name = "storage.type", havingValue = "local")
+public class LocalImageController {
+
+    private static final String PREFIX = "/api/images/";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    private final LocalStorageService storage;
+    private final long cacheMaxAgeSeconds;
+    private final long maxFileBytes;
+
+    // Signed PUTs replace multipart uploads, so they get the same size limit
+    public LocalImageController(LocalStorageService storage,
+            @Value("${storage.local.cache-max-age-seconds:86400}") long cacheMaxAgeSeconds,
+            @Value("${spring.servlet.multipart.max-file-size:10MB}") DataSize maxFileSize) {
+        this.storage = storage;
+        this.cacheMaxAgeSeconds = cacheMaxAgeSeconds;
+        this.maxFileBytes = maxFileSize.toBytes();
+    }
+
+    @GetMapping("/**")
+    public void get(@RequestParam(required = false) Long expires,
+            @RequestParam(required = false) String signature,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String objectKey = objectKey(request);
+        if (expires == null || !storage.verifySignature("GET", objectKey, expires, signature)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        Path file = storage.pathFor(objectKey);
+        if (!Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long size = Files.size(file);
+        String etag = storage.etag(file);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=" + cacheMaxAgeSeconds + ", immutable");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, size);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        String contentType = URLConnection.guessContentTypeFromName(objectKey);
+        response.setContentType(contentType != null ? contentType : "application/octet-stream");
+        long length = end - start + 1;
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // The connector writes the file straight from the page cache to the socket
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", start);
+            request.setAttribute("org.apache.tomcat.sendfile.end", end + 1);
+            return;
+        }
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel channel = Channels.newChannel(out);
+            long position = start;
+            while (position <= end) {
+                position += in.transferTo(position, end + 1 - position, channel);
+            }
+            out.flush();
+        }
+    }
+
+    @PutMapping("/**")
+    public ResponseEntity<ApiResponse<Void>> put(@RequestParam(required = false) Long expires,
+            @RequestParam(required = false) String signature, HttpServletRequest request) throws IOException {
+        String objectKey = objectKey(request);
+        if (expires == null || !storage.verifySignature("PUT", objectKey, expires, signature)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error("Invalid or expired signature"));
+        }
+        // Content-Length may be absent (chunked), so the limit is also enforced while streaming
+        if (request.getContentLengthLong() > maxFileBytes
+                || !storage.store(objectKey, request.getInputStream(), maxFileBytes)) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(ApiResponse.error("Object exceeds the maximum size of " + maxFileBytes + " bytes"));
+        }
+        return ResponseEntity.ok(ApiResponse.success("Stored", null));
+    }
+
+    // Keys are percent-encoded in the URLs LocalStorageService signs, and signed in decoded form
+    private String objectKey(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith(PREFIX) ? UriUtils.decode(path.substring(PREFIX.length()), StandardCharsets.UTF_8) : "";
+    }
+
+    /**
+     * Parses a single byte range. Returns {start, end} for a satisfiable range, an empty array
+     * to serve the whole file (unsupported or multiple ranges) and null when unsatisfiable.
+     */
+    private static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.contains(",")) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(size - suffix, 0);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? size - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), size - 1);
+            }
+            return start > end || start >= size ? null : new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
@@ -22,8 +22,14 @@ public class AppointmentDto {
     private LocalDateTime dateTime;
     private String status;
     private String notes;
+    // List rows carry only this; the full notes come with the detail view
+    private String notesPreview;
     private String imageUrl1;
     private String imageUrl2;
+    private String thumbnailUrl1;
+    private String mediumUrl1;
+    private String thumbnailUrl2;
+    private String mediumUrl2;
     private String doctorName;
     private String patientName;
     private PrescriptionDto prescription;
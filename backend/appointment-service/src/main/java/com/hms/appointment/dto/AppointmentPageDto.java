@@ -0,0 +1,16 @@
+package com.hms.appointment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class AppointmentPageDto {
+    private List<AppointmentDto> content;
+    private Integer page; // null for cursor-based pages
+    private int size;
+    private boolean hasNext;
+    private String nextCursor; // only on cursor-based pages
+}
@@ -0,0 +1,10 @@
+package com.hms.appointment.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class ImageConfirmRequest {
+    @NotBlank(message = "Object key is required")
+    private String objectKey;
+}
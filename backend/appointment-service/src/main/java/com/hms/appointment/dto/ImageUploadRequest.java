@@ -0,0 +1,12 @@
+package com.hms.appointment.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class ImageUploadRequest {
+    @NotBlank(message = "File name is required")
+    private String fileName;
+
+    private String contentType;
+}
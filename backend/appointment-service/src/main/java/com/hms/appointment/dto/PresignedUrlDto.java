@@ -0,0 +1,15 @@
+package com.hms.appointment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class PresignedUrlDto {
+    private String objectKey;
+    private String method;
+    private String url;
+    private Instant expiresAt;
+}
@@ -0,0 +1,14 @@
+package com.hms.appointment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadPartDto {
+    private int partNumber;
+    private String etag;
+    private long size;
+}
@@ -0,0 +1,17 @@
+package com.hms.appointment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class UploadSessionDto {
+    private String id;
+    private Long appointmentId;
+    private String objectKey;
+    private long partSize;
+    private String status;
+    private List<UploadPartDto> parts; // parts already stored; resume by sending the missing ones
+}
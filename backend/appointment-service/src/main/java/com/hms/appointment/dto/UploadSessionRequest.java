@@ -0,0 +1,14 @@
+package com.hms.appointment.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class UploadSessionRequest {
+    @NotBlank(message = "File name is required")
+    private String fileName;
+
+    private String contentType;
+
+    private Long size;
+}
@@ -2,19 +2,25 @@ package com.hms.appointment.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Formula;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", uniqueConstraints = @UniqueConstraint(
+        name = Appointment.ACTIVE_SLOT_CONSTRAINT, columnNames = {"cid", "doctor_id", "active_date_time"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Appointment {
 
+    public static final String ACTIVE_SLOT_CONSTRAINT = "uk_appointments_active_slot";
+    public static final int NOTES_PREVIEW_LENGTH = 120;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointments_seq")
+    @SequenceGenerator(name = "appointments_seq", sequenceName = "appointments_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -28,22 +34,57 @@ public class Appointment {
 
     private LocalDateTime dateTime;
 
+    // dateTime while the booking is active, NULL once cancelled; keyed by ACTIVE_SLOT_CONSTRAINT
+    @Column(name = "active_date_time")
+    private LocalDateTime activeDateTime;
+
     @Column(nullable = false)
     @Enumerated(EnumType.STRING)
     @Builder.Default
     private AppointmentStatus status = AppointmentStatus.BOOKED;
 
+    // Free text stays out of list queries; loaded on first access (needs bytecode enhancement),
+    // so toString/equals must not touch it
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Basic(fetch = FetchType.LAZY)
     @Column(columnDefinition = "TEXT")
     private String notes;
 
+    // Start of the notes for list rows, selected with the row; one extra character tells it was cut
+    @Formula("substring(notes, 1, " + (NOTES_PREVIEW_LENGTH + 1) + ")")
+    private String notesPreview;
+
     private String imageUrl1;
 
     private String imageUrl2;
 
+    // Downscaled copies of the images, filled in asynchronously after upload
+    @Column(length = 1024)
+    private String thumbnailUrl1;
+
+    @Column(length = 1024)
+    private String mediumUrl1;
+
+    @Column(length = 1024)
+    private String thumbnailUrl2;
+
+    @Column(length = 1024)
+    private String mediumUrl2;
+
     // Helper fields for display (not FK — cross-service)
     private String doctorName;
     private String patientName;
 
+    // Excluded from the Lombok methods: they would walk back through the bidirectional graph
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToOne(mappedBy = "appointment", cascade = CascadeType.ALL)
     private Prescription prescription;
+
+    @PrePersist
+    @PreUpdate
+    void syncActiveDateTime() {
+        this.activeDateTime = status == AppointmentStatus.CANCELLED ? null : dateTime;
+    }
 }
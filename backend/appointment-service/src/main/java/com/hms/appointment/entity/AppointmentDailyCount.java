@@ -0,0 +1,43 @@
+package com.hms.appointment.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Number of appointments per tenant, day and status, kept in step with the appointments table
+ * inside the same transaction so stats never have to count appointment rows.
+ */
+@Entity
+@Table(name = "appointment_daily_counts", uniqueConstraints = @UniqueConstraint(
+        name = "uk_appointment_daily_counts_cid_date", columnNames = {"cid", "appointment_date"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AppointmentDailyCount {
+
+    // Bucket for appointments without a dateTime; counted in totals only
+    public static final LocalDate UNSCHEDULED = LocalDate.of(1970, 1, 1);
+
+    // Identity: rows are mostly created by a native upsert, which cannot use the pooled generator
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String cid;
+
+    @Column(name = "appointment_date", nullable = false)
+    private LocalDate appointmentDate;
+
+    @Builder.Default
+    private long booked = 0;
+
+    @Builder.Default
+    private long completed = 0;
+
+    @Builder.Default
+    private long cancelled = 0;
+}
@@ -0,0 +1,24 @@
+package com.hms.appointment.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * All-time number of appointments per tenant, whatever their status. Kept in step with
+ * {@link AppointmentDailyCount} in the same transaction, so the total is one row to read instead
+ * of a sum over every day the tenant has bookings on.
+ */
+@Entity
+@Table(name = "appointment_tenant_totals")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AppointmentTenantTotal {
+
+    @Id
+    private String cid;
+
+    @Column(nullable = false)
+    private long total;
+}
@@ -0,0 +1,11 @@
+package com.hms.appointment.entity;
+
+public enum OutboxStatus {
+    PENDING,
+    // Claimed by a dispatcher that is calling hospital-service; may already be applied
+    IN_FLIGHT,
+    SENT,
+    FAILED,
+    // Superseded before delivery, e.g. a deduction reversed by a later restoration
+    CANCELLED
+}
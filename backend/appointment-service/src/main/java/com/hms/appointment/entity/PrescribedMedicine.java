@@ -12,9 +12,12 @@ import lombok.*;
 public class PrescribedMedicine {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "prescribed_medicines_seq")
+    @SequenceGenerator(name = "prescribed_medicines_seq", sequenceName = "prescribed_medicines_seq", allocationSize = 50)
     private Long id;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne
     @JoinColumn(name = "prescription_id")
     private Prescription prescription;
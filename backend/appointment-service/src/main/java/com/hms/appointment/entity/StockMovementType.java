@@ -0,0 +1,6 @@
+package com.hms.appointment.entity;
+
+public enum StockMovementType {
+    DEDUCT,
+    RESTORE
+}
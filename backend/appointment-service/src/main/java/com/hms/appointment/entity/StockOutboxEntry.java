@@ -0,0 +1,66 @@
+package com.hms.appointment.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A stock movement for hospital-service, written in the same transaction as the appointment
+ * change that caused it and delivered later by {@code StockOutboxDispatcher}.
+ */
+@Entity
+@Table(name = "stock_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_outbox_seq")
+    @SequenceGenerator(name = "stock_outbox_seq", sequenceName = "stock_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String cid;
+
+    // Appointment whose change caused the movement; null for entries written before it was recorded
+    private Long appointmentId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private StockMovementType type;
+
+    // JSON array of {"medicineName", "quantity"}
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false, unique = true, length = 36)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    // Identify the dispatcher run delivering an IN_FLIGHT entry and when its claim lapses
+    @Column(length = 36)
+    private String claimToken;
+
+    private LocalDateTime claimedUntil;
+
+    @Column(length = 1000)
+    private String lastError;
+}
@@ -0,0 +1,45 @@
+package com.hms.appointment.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A content-addressed object in storage ({@code cas/<cid>/<sha256>}) and the number of appointment
+ * image slots that reference it. The object is deleted when the count drops to zero. Rows from
+ * before objects were kept per tenant have no cid and the shared {@code cas/<sha256>} key.
+ */
+@Entity
+@Table(name = "stored_objects", uniqueConstraints = @UniqueConstraint(
+        name = "uk_stored_objects_cid_content_hash", columnNames = {"cid", "content_hash"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoredObject {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stored_objects_seq")
+    @SequenceGenerator(name = "stored_objects_seq", sequenceName = "stored_objects_seq", allocationSize = 50)
+    private Long id;
+
+    private String cid;
+
+    @Column(nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, length = 1024)
+    private String objectKey;
+
+    @Column(nullable = false)
+    private long size;
+
+    private String contentType;
+
+    @Builder.Default
+    private long refCount = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
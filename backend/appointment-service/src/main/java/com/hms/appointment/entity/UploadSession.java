@@ -0,0 +1,55 @@
+package com.hms.appointment.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A resumable chunked upload of one appointment image, backed by a multipart upload in object
+ * storage. The parts themselves are tracked by the storage backend, not in this table.
+ */
+@Entity
+@Table(name = "upload_sessions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSession {
+
+    // Random UUID, so session ids cannot be guessed
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private String cid;
+
+    @Column(nullable = false)
+    private Long appointmentId;
+
+    @Column(nullable = false, length = 1024)
+    private String objectKey;
+
+    @Column(nullable = false, length = 1024)
+    private String storageUploadId;
+
+    private String contentType;
+
+    private Long totalSize;
+
+    @Column(nullable = false)
+    private long partSize;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private UploadSessionStatus status = UploadSessionStatus.ACTIVE;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Moved on by every uploaded part; a session idle for longer than the TTL is aborted
+    @Column(nullable = false)
+    private LocalDateTime lastActivityAt;
+}
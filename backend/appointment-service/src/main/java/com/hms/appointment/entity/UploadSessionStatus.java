@@ -0,0 +1,7 @@
+package com.hms.appointment.entity;
+
+public enum UploadSessionStatus {
+    ACTIVE,
+    COMPLETED,
+    ABORTED
+}
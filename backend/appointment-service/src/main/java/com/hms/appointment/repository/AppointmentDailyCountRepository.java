@@ -0,0 +1,39 @@
+package com.hms.appointment.repository;
+
+import com.hms.appointment.entity.AppointmentDailyCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+
+public interface AppointmentDailyCountRepository extends JpaRepository<AppointmentDailyCount, Long> {
+
+    // Adds to the (cid, date) row, creating it on first use; the unique key settles concurrent creators
+    @Modifying
+    @Query(value = "insert into appointment_daily_counts (cid, appointment_date, booked, completed, cancelled) "
+            + "values (:cid, :date, :booked, :completed, :cancelled) "
+            + "on duplicate key update booked = booked + :booked, completed = completed + :completed, "
+            + "cancelled = cancelled + :cancelled", nativeQuery = true)
+    int upsertMySql(@Param("cid") String cid, @Param("date") LocalDate date,
+            @Param("booked") long booked, @Param("completed") long completed, @Param("cancelled") long cancelled);
+
+    @Modifying
+    @Query(value = "insert into appointment_daily_counts (cid, appointment_date, booked, completed, cancelled) "
+            + "values (:cid, :date, :booked, :completed, :cancelled) "
+            + "on conflict (cid, appointment_date) do update set "
+            + "booked = appointment_daily_counts.booked + excluded.booked, "
+            + "completed = appointment_daily_counts.completed + excluded.completed, "
+            + "cancelled = appointment_daily_counts.cancelled + excluded.cancelled", nativeQuery = true)
+    int upsertPostgres(@Param("cid") String cid, @Param("date") LocalDate date,
+            @Param("booked") long booked, @Param("completed") long completed, @Param("cancelled") long cancelled);
+
+    @Query("select coalesce(sum(c.booked + c.completed + c.cancelled), 0) from AppointmentDailyCount c "
+            + "where c.cid = :cid and c.appointmentDate = :date")
+    long sumByCidAndDate(@Param("cid") String cid, @Param("date") LocalDate date);
+
+    @Query("select coalesce(sum(c.booked + c.completed + c.cancelled), 0) from AppointmentDailyCount c "
+            + "where c.appointmentDate = :date")
+    long sumByDate(@Param("date") LocalDate date);
+}
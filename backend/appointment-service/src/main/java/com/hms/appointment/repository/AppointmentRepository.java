@@ -1,10 +1,21 @@
 package com.hms.appointment.repository;
 
 import com.hms.appointment.entity.Appointment;
+import com.hms.appointment.entity.AppointmentStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
     List<Appointment> findByCid(String cid);
@@ -16,4 +27,114 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     long countByCidAndDateTimeBetween(String cid, LocalDateTime start, LocalDateTime end);
 
     long countByDateTimeBetween(LocalDateTime start, LocalDateTime end);
+
+    // Rows of (cid, day, status, count) used to rebuild appointment_daily_counts
+    @Query("select a.cid, cast(a.dateTime as LocalDate), a.status, count(a) from Appointment a "
+            + "group by a.cid, cast(a.dateTime as LocalDate), a.status")
+    List<Object[]> countByCidDayAndStatus();
+
+    // Read path for listings: appointments, prescriptions and medicines in a single statement
+    @Query("select a from Appointment a left join fetch a.prescription p left join fetch p.medicines "
+            + "where a.cid = :cid")
+    List<Appointment> findWithPrescriptionsByCid(@Param("cid") String cid);
+
+    @Query("select a from Appointment a left join fetch a.prescription p left join fetch p.medicines "
+            + "where a.id in :ids")
+    List<Appointment> findWithPrescriptionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Slice skips the count query, so the database stops after page + 1 rows
+    @Query("select a.id from Appointment a where a.cid = :cid "
+            + "and (:status is null or a.status = :status) "
+            + "and (:from is null or a.dateTime >= :from) "
+            + "and (:to is null or a.dateTime < :to)")
+    Slice<Long> findPageIds(@Param("cid") String cid,
+            @Param("status") AppointmentStatus status,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            Pageable pageable);
+
+    // Keyset page ordered by (dateTime desc, id desc); pass a Pageable of size + 1 to detect a next page
+    @Query("select a.id from Appointment a where a.cid = :cid and a.dateTime is not null "
+            + "and (:status is null or a.status = :status) "
+            + "and (:from is null or a.dateTime >= :from) "
+            + "and (:to is null or a.dateTime < :to) "
+            + "and (:afterDateTime is null or a.dateTime < :afterDateTime "
+            + "or (a.dateTime = :afterDateTime and a.id < :afterId)) "
+            + "order by a.dateTime desc, a.id desc")
+    List<Long> findPageIdsAfter(@Param("cid") String cid,
+            @Param("status") AppointmentStatus status,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("afterDateTime") LocalDateTime afterDateTime,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    @Query("select a from Appointment a left join fetch a.prescription p left join fetch p.medicines "
+            + "where a.cid = :cid and a.doctorId = :doctorId")
+    List<Appointment> findWithPrescriptionsByCidAndDoctorId(@Param("cid") String cid,
+            @Param("doctorId") Long doctorId);
+
+    // One doctor's appointments in [from, to), served by (cid, doctor_id, date_time)
+    @Query("select a from Appointment a left join fetch a.prescription p left join fetch p.medicines "
+            + "where a.cid = :cid and a.doctorId = :doctorId and a.dateTime >= :from and a.dateTime < :to "
+            + "order by a.dateTime, a.id")
+    List<Appointment> findDoctorSchedule(@Param("cid") String cid,
+            @Param("doctorId") Long doctorId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    // Start times that occupy a slot in [from, to); used to load a doctor's day into DoctorSlotRegistry
+    @Query("select a.dateTime from Appointment a "
+            + "where a.cid = :cid and a.doctorId = :doctorId and a.dateTime >= :from and a.dateTime < :to "
+            + "and a.status <> com.hms.appointment.entity.AppointmentStatus.CANCELLED")
+    List<LocalDateTime> findOccupiedTimes(@Param("cid") String cid,
+            @Param("doctorId") Long doctorId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    /**
+     * Export rows, one per prescribed medicine (or one per appointment without medicines), ordered so that
+     * an appointment's rows are adjacent. Scalar columns keep the persistence context empty while streaming.
+     */
+    String EXPORT_ROWS = "select a.id, a.dateTime, a.status, a.doctorId, a.doctorName, a.patientId, a.patientName, "
+            + "a.notes, p.diagnosis, p.advice, m.medicineName, m.quantity, m.dosage "
+            + "from Appointment a left join a.prescription p left join p.medicines m "
+            + "where a.cid = :cid "
+            + "and (:from is null or a.dateTime >= :from) "
+            + "and (:to is null or a.dateTime < :to) "
+            + "order by a.dateTime, a.id";
+
+    // PostgreSQL: a server-side cursor, 500 rows per round trip (needs the surrounding transaction)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(EXPORT_ROWS)
+    Stream<Object[]> streamExportRows(@Param("cid") String cid,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    // MySQL: Integer.MIN_VALUE makes Connector/J stream this one result set row by row, without
+    // turning on useCursorFetch for every query on the connection
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(EXPORT_ROWS)
+    Stream<Object[]> streamExportRowsMySql(@Param("cid") String cid,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    // Derivatives are only recorded while the slot still holds the image they were made from
+    @Modifying
+    @Query("update Appointment a set a.thumbnailUrl1 = :thumbnail, a.mediumUrl1 = :medium "
+            + "where a.id = :id and a.imageUrl1 = :source")
+    int setImage1Derivatives(@Param("id") Long id, @Param("source") String source,
+            @Param("thumbnail") String thumbnail, @Param("medium") String medium);
+
+    @Modifying
+    @Query("update Appointment a set a.thumbnailUrl2 = :thumbnail, a.mediumUrl2 = :medium "
+            + "where a.id = :id and a.imageUrl2 = :source")
+    int setImage2Derivatives(@Param("id") Long id, @Param("source") String source,
+            @Param("thumbnail") String thumbnail, @Param("medium") String medium);
 }
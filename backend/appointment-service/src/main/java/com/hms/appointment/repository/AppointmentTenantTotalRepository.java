@@ -0,0 +1,25 @@
+package com.hms.appointment.repository;
+
+import com.hms.appointment.entity.AppointmentTenantTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface AppointmentTenantTotalRepository extends JpaRepository<AppointmentTenantTotal, String> {
+
+    // Adds to the tenant's row, creating it on first use; the primary key settles concurrent creators
+    @Modifying
+    @Query(value = "insert into appointment_tenant_totals (cid, total) values (:cid, :delta) "
+            + "on duplicate key update total = total + :delta", nativeQuery = true)
+    int upsertMySql(@Param("cid") String cid, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "insert into appointment_tenant_totals (cid, total) values (:cid, :delta) "
+            + "on conflict (cid) do update set total = appointment_tenant_totals.total + excluded.total",
+            nativeQuery = true)
+    int upsertPostgres(@Param("cid") String cid, @Param("delta") long delta);
+
+    @Query("select coalesce(sum(t.total), 0) from AppointmentTenantTotal t")
+    long sumAll();
+}
@@ -0,0 +1,60 @@
+package com.hms.appointment.repository;
+
+import com.hms.appointment.entity.OutboxStatus;
+import com.hms.appointment.entity.StockOutboxEntry;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface StockOutboxRepository extends JpaRepository<StockOutboxEntry, Long> {
+
+    /**
+     * Due pending entries in id order, leaving out any entry queued behind an earlier entry of the
+     * same tenant that is waiting for a retry or being delivered. SKIP LOCKED (lock timeout -2)
+     * lets several dispatcher instances claim disjoint batches.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select o from StockOutboxEntry o where o.status = com.hms.appointment.entity.OutboxStatus.PENDING "
+            + "and o.nextAttemptAt <= :now "
+            + "and not exists (select e.id from StockOutboxEntry e where e.cid = o.cid and e.id < o.id and ("
+            + "(e.status = com.hms.appointment.entity.OutboxStatus.PENDING and e.nextAttemptAt > :now) "
+            + "or e.status = com.hms.appointment.entity.OutboxStatus.IN_FLIGHT)) "
+            + "order by o.id")
+    List<StockOutboxEntry> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // True when an earlier entry of the tenant is still pending or in flight, e.g. claimed by another instance
+    boolean existsByCidAndStatusInAndIdLessThan(String cid, Collection<OutboxStatus> statuses, Long id);
+
+    // Entries claimed by one dispatcher run, locked while it records the outcome
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from StockOutboxEntry o where o.claimToken = :token order by o.id")
+    List<StockOutboxEntry> lockClaimed(@Param("token") String claimToken);
+
+    // Hands entries of a dispatcher that never reported back to the next run; delivery is idempotent
+    @Modifying
+    @Query("update StockOutboxEntry o set o.status = com.hms.appointment.entity.OutboxStatus.PENDING, "
+            + "o.claimToken = null, o.claimedUntil = null "
+            + "where o.status = com.hms.appointment.entity.OutboxStatus.IN_FLIGHT and o.claimedUntil <= :now")
+    int releaseExpiredClaims(@Param("now") LocalDateTime now);
+
+    // Deductions of one appointment that have not been applied. IN_FLIGHT entries are left out, so this
+    // never waits on a hospital-service call; rows are only locked briefly while being claimed or recorded
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from StockOutboxEntry o where o.appointmentId = :appointmentId "
+            + "and o.type = com.hms.appointment.entity.StockMovementType.DEDUCT "
+            + "and o.status in (com.hms.appointment.entity.OutboxStatus.PENDING, "
+            + "com.hms.appointment.entity.OutboxStatus.FAILED) "
+            + "order by o.id")
+    List<StockOutboxEntry> lockUnappliedDeductions(@Param("appointmentId") Long appointmentId);
+}
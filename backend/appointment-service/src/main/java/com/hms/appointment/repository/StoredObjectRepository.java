@@ -0,0 +1,30 @@
+package com.hms.appointment.repository;
+
+import com.hms.appointment.entity.StoredObject;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface StoredObjectRepository extends JpaRepository<StoredObject, Long> {
+
+    // Taken by both store and release before counting, so a delete never races a re-upload
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from StoredObject o where o.cid = :cid and o.contentHash = :hash")
+    Optional<StoredObject> findForUpdate(@Param("cid") String cid, @Param("hash") String contentHash);
+
+    // Objects stored before they were kept per tenant
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from StoredObject o where o.cid is null and o.contentHash = :hash")
+    Optional<StoredObject> findSharedForUpdate(@Param("hash") String contentHash);
+
+    // Adds a reference to an object that is already stored; 0 when it is absent or being deleted
+    @Modifying
+    @Query("update StoredObject o set o.refCount = o.refCount + 1 "
+            + "where o.cid = :cid and o.contentHash = :hash and o.refCount > 0")
+    int addReference(@Param("cid") String cid, @Param("hash") String contentHash);
+}
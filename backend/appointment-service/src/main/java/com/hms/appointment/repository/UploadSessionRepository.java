@@ -0,0 +1,20 @@
+package com.hms.appointment.repository;
+
+import com.hms.appointment.entity.UploadSession;
+import com.hms.appointment.entity.UploadSessionStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+    List<UploadSession> findByStatusAndLastActivityAtBefore(UploadSessionStatus status, LocalDateTime cutoff);
+
+    // A bulk update, so parts uploaded in parallel never overwrite each other's or complete's changes
+    @Modifying
+    @Query("update UploadSession s set s.lastActivityAt = :now where s.id = :id")
+    int touch(@Param("id") String id, @Param("now") LocalDateTime now);
+}
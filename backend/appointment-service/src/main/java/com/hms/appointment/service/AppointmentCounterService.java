@@ -0,0 +1,208 @@
+package com.hms.appointment.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hms.appointment.dto.AppointmentStatsDto;
+import com.hms.appointment.entity.Appointment;
+import com.hms.appointment.entity.AppointmentDailyCount;
+import com.hms.appointment.entity.AppointmentStatus;
+import com.hms.appointment.entity.AppointmentTenantTotal;
+import com.hms.appointment.repository.AppointmentDailyCountRepository;
+import com.hms.appointment.repository.AppointmentRepository;
+import com.hms.appointment.repository.AppointmentTenantTotalRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains appointment_daily_counts and the per-tenant running totals in
+ * appointment_tenant_totals alongside appointment writes and serves stats from them, so the
+ * dashboard never counts appointment rows. {@link #rebuild()} recomputes both tables from the
+ * appointments table.
+ */
+@Service
+public class AppointmentCounterService {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentCounterService.class);
+    private static final String ALL_TENANTS = "*";
+
+    private final AppointmentDailyCountRepository countRepository;
+    private final AppointmentTenantTotalRepository totalRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean postgres;
+    private final Cache<String, AppointmentStatsDto> statsCache;
+
+    public AppointmentCounterService(AppointmentDailyCountRepository countRepository,
+            AppointmentTenantTotalRepository totalRepository,
+            AppointmentRepository appointmentRepository,
+            PlatformTransactionManager transactionManager,
+            DataSource dataSource,
+            @Value("${appointment.stats.cache-seconds:30}") long cacheSeconds) throws MetaDataAccessException {
+        this.countRepository = countRepository;
+        this.totalRepository = totalRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.postgres = "PostgreSQL".equals(JdbcUtils.commonDatabaseName(
+                JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName)));
+        this.statsCache = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(cacheSeconds))
+                .build();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onCreated(Appointment appointment) {
+        adjust(appointment.getCid(), appointment.getDateTime(), appointment.getStatus(), 1);
+        adjustTotal(appointment.getCid(), appointment.getStatus(), 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onDeleted(Appointment appointment) {
+        adjust(appointment.getCid(), appointment.getDateTime(), appointment.getStatus(), -1);
+        adjustTotal(appointment.getCid(), appointment.getStatus(), -1);
+    }
+
+    // Moves between days and statuses leave the tenant's total as it is
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onChanged(LocalDateTime oldDateTime, AppointmentStatus oldStatus, Appointment appointment) {
+        if (bucket(oldDateTime).equals(bucket(appointment.getDateTime())) && oldStatus == appointment.getStatus()) {
+            return;
+        }
+        adjust(appointment.getCid(), oldDateTime, oldStatus, -1);
+        adjust(appointment.getCid(), appointment.getDateTime(), appointment.getStatus(), 1);
+    }
+
+    public AppointmentStatsDto getStats(String cid) {
+        LocalDate today = LocalDate.now();
+        String key = (cid == null ? ALL_TENANTS : cid) + "|" + today;
+        return statsCache.get(key, k -> cid == null
+                ? new AppointmentStatsDto(totalRepository.sumAll(), countRepository.sumByDate(today))
+                : new AppointmentStatsDto(totalOf(cid), countRepository.sumByCidAndDate(cid, today)));
+    }
+
+    private long totalOf(String cid) {
+        return totalRepository.findById(cid).map(AppointmentTenantTotal::getTotal).orElse(0L);
+    }
+
+    /**
+     * Recomputes every counter from the appointments table. Writes that commit while the
+     * rebuild runs may be missed; run it when traffic is low.
+     */
+    @Transactional
+    public void rebuild() {
+        countRepository.deleteAllInBatch();
+        totalRepository.deleteAllInBatch();
+        Map<String, AppointmentDailyCount> counts = new HashMap<>();
+        Map<String, Long> totals = new HashMap<>();
+        for (Object[] row : appointmentRepository.countByCidDayAndStatus()) {
+            String cid = (String) row[0];
+            LocalDate day = row[1] != null ? (LocalDate) row[1] : AppointmentDailyCount.UNSCHEDULED;
+            AppointmentStatus status = (AppointmentStatus) row[2];
+            if (status == null) {
+                continue;
+            }
+            long count = ((Number) row[3]).longValue();
+            AppointmentDailyCount counter = counts.computeIfAbsent(cid + "|" + day, k -> AppointmentDailyCount.builder()
+                    .cid(cid)
+                    .appointmentDate(day)
+                    .build());
+            switch (status) {
+                case BOOKED -> counter.setBooked(counter.getBooked() + count);
+                case COMPLETED -> counter.setCompleted(counter.getCompleted() + count);
+                case CANCELLED -> counter.setCancelled(counter.getCancelled() + count);
+            }
+            totals.merge(cid, count, Long::sum);
+        }
+        countRepository.saveAll(counts.values());
+        totalRepository.saveAll(totals.entrySet().stream()
+                .map(total -> new AppointmentTenantTotal(total.getKey(), total.getValue()))
+                .toList());
+        statsCache.invalidateAll();
+        log.info("Rebuilt {} appointment counter rows", counts.size());
+    }
+
+    // Self-invocation skips the @Transactional proxy, so the internal callers open the transaction
+    @Scheduled(cron = "${appointment.counters.rebuild-cron:-}")
+    public void scheduledRebuild() {
+        transactionTemplate.executeWithoutResult(status -> rebuild());
+    }
+
+    // Seeds the counters on first start after upgrading, when appointments already exist
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        if (countRepository.count() == 0 && appointmentRepository.count() > 0) {
+            transactionTemplate.executeWithoutResult(status -> rebuild());
+        }
+    }
+
+    private void adjust(String cid, LocalDateTime dateTime, AppointmentStatus status, int delta) {
+        if (status == null) {
+            return;
+        }
+        LocalDate day = bucket(dateTime);
+        long booked = status == AppointmentStatus.BOOKED ? delta : 0;
+        long completed = status == AppointmentStatus.COMPLETED ? delta : 0;
+        long cancelled = status == AppointmentStatus.CANCELLED ? delta : 0;
+
+        // One upsert in the caller's transaction: creates the row on first use without a second connection
+        if (postgres) {
+            countRepository.upsertPostgres(cid, day, booked, completed, cancelled);
+        } else {
+            countRepository.upsertMySql(cid, day, booked, completed, cancelled);
+        }
+        evictAfterCommit(cid);
+    }
+
+    private void adjustTotal(String cid, AppointmentStatus status, int delta) {
+        // Same rows as adjust, which skips appointments without a status
+        if (status == null) {
+            return;
+        }
+        if (postgres) {
+            totalRepository.upsertPostgres(cid, delta);
+        } else {
+            totalRepository.upsertMySql(cid, delta);
+        }
+    }
+
+    private void evictAfterCommit(String cid) {
+        Runnable evict = () -> statsCache.asMap().keySet()
+                .removeIf(key -> key.startsWith(cid + "|") || key.startsWith(ALL_TENANTS + "|"));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+
+    private static LocalDate bucket(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toLocalDate() : AppointmentDailyCount.UNSCHEDULED;
+    }
+}
@@ -0,0 +1,203 @@
+package com.hms.appointment.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.appointment.repository.AppointmentRepository;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a tenant's appointments with their prescriptions straight from a database cursor to an
+ * output stream, so memory use does not depend on the number of rows exported.
+ */
+@Service
+public class AppointmentExportService {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final String[] CSV_HEADER = {
+            "appointmentId", "dateTime", "status", "doctorId", "doctorName", "patientId", "patientName",
+            "notes", "diagnosis", "advice", "medicineName", "quantity", "dosage"
+    };
+
+    private final AppointmentRepository appointmentRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnly;
+    private final boolean postgres;
+
+    public AppointmentExportService(AppointmentRepository appointmentRepository, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager, DataSource dataSource) throws MetaDataAccessException {
+        this.appointmentRepository = appointmentRepository;
+        this.objectMapper = objectMapper;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.postgres = "PostgreSQL".equals(JdbcUtils.commonDatabaseName(
+                JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName)));
+    }
+
+    // Runs on the async request thread, so it opens its own transaction to keep the cursor alive
+    public void write(String cid, Format format, LocalDateTime from, LocalDateTime to, boolean gzip,
+            OutputStream out) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+        try {
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = postgres
+                        ? appointmentRepository.streamExportRows(cid, from, to)
+                        : appointmentRepository.streamExportRowsMySql(cid, from, to)) {
+                    if (format == Format.CSV) {
+                        writeCsv(rows.iterator(), writer);
+                    } else {
+                        writeNdjson(rows.iterator(), writer);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+    }
+
+    // One line per medicine, or a single line for an appointment without medicines
+    private void writeCsv(Iterator<Object[]> rows, Writer writer) throws IOException {
+        writeCsvLine(writer, CSV_HEADER);
+        forEachAppointment(rows, (appointment, medicines) -> {
+            if (medicines.isEmpty()) {
+                writeCsvLine(writer, appointment);
+            }
+            for (Object[] medicine : medicines) {
+                writeCsvLine(writer, medicine);
+            }
+        });
+    }
+
+    // One JSON line per appointment with a medicines array
+    private void writeNdjson(Iterator<Object[]> rows, Writer writer) throws IOException {
+        forEachAppointment(rows, (appointment, medicineRows) -> {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("appointmentId", appointment[0]);
+            line.put("dateTime", format(appointment[1]));
+            line.put("status", format(appointment[2]));
+            line.put("doctorId", appointment[3]);
+            line.put("doctorName", appointment[4]);
+            line.put("patientId", appointment[5]);
+            line.put("patientName", appointment[6]);
+            line.put("notes", appointment[7]);
+            line.put("diagnosis", appointment[8]);
+            line.put("advice", appointment[9]);
+            List<Map<String, Object>> medicines = new ArrayList<>(medicineRows.size());
+            for (Object[] row : medicineRows) {
+                Map<String, Object> medicine = new LinkedHashMap<>();
+                medicine.put("medicineName", row[10]);
+                medicine.put("quantity", row[11]);
+                medicine.put("dosage", row[12]);
+                medicines.add(medicine);
+            }
+            line.put("medicines", medicines);
+            writeJsonLine(writer, line);
+        });
+    }
+
+    @FunctionalInterface
+    private interface AppointmentRows {
+        void accept(Object[] appointment, List<Object[]> medicines) throws IOException;
+    }
+
+    /**
+     * Collects the adjacent rows of each appointment and hands them over together, so only one
+     * appointment's medicines are held at a time. The query orders by appointment only; medicines
+     * come in whatever order the join returns them.
+     */
+    private void forEachAppointment(Iterator<Object[]> rows, AppointmentRows consumer) throws IOException {
+        Object[] appointment = null;
+        List<Object[]> medicines = new ArrayList<>();
+        while (rows.hasNext()) {
+            Object[] row = rows.next();
+            if (appointment == null || !Objects.equals(appointment[0], row[0])) {
+                if (appointment != null) {
+                    consumer.accept(appointment, medicines);
+                    medicines = new ArrayList<>();
+                }
+                appointment = row;
+            }
+            if (row[10] != null) {
+                medicines.add(row);
+            }
+        }
+        if (appointment != null) {
+            consumer.accept(appointment, medicines);
+        }
+    }
+
+    private void writeJsonLine(Writer writer, Map<String, Object> value) throws IOException {
+        writer.write(objectMapper.writeValueAsString(value));
+        writer.write('\n');
+    }
+
+    private void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String cell = format(values[i]);
+            writer.write(escapeCsv(values[i] instanceof Number ? cell : neutralizeFormula(cell)));
+        }
+        writer.write("\r\n");
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return null;
+        }
+        return value instanceof Enum<?> e ? e.name() : value.toString();
+    }
+
+    // Spreadsheets run text cells starting with these as formulas; a leading quote keeps them text
+    private static String neutralizeFormula(String value) {
+        if (value == null || value.isEmpty()) {
+            return value;
+        }
+        char first = value.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r'
+                ? "'" + value
+                : value;
+    }
+
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,58 +1,181 @@
 package com.hms.appointment.service;
 
 import com.hms.appointment.dto.AppointmentDto;
+import com.hms.appointment.dto.AppointmentPageDto;
 import com.hms.appointment.dto.AppointmentStatsDto;
 import com.hms.appointment.dto.PrescriptionDto;
+import com.hms.appointment.dto.PresignedUrlDto;
 import com.hms.appointment.entity.Appointment;
 import com.hms.appointment.entity.AppointmentStatus;
 import com.hms.appointment.entity.PrescribedMedicine;
 import com.hms.appointment.entity.Prescription;
+import com.hms.appointment.entity.StockMovementType;
 import com.hms.appointment.repository.AppointmentRepository;
 
 import com.hms.common.exception.ResourceNotFoundException;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class AppointmentService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_SCHEDULE_DAYS = 31;
+
     private final AppointmentRepository appointmentRepository;
+    private final StockOutbox stockOutbox;
+    private final AppointmentCounterService counterService;
+    private final DoctorSlotRegistry slotRegistry;
+    private final AppointmentExportService exportService;
     private final StorageService storageService;
-    private final HospitalClient hospitalClient;
+    private final StorageUploader storageUploader;
+    private final ContentAddressedStore contentStore;
+    private final ImageDerivativeService derivativeService;
+    private final TransactionTemplate transactionTemplate;
 
     public AppointmentService(AppointmentRepository appointmentRepository,
+            StockOutbox stockOutbox,
+            AppointmentCounterService counterService,
+            DoctorSlotRegistry slotRegistry,
+            AppointmentExportService exportService,
             StorageService storageService,
-            HospitalClient hospitalClient) {
+            StorageUploader storageUploader,
+            ContentAddressedStore contentStore,
+            ImageDerivativeService derivativeService,
+            PlatformTransactionManager transactionManager) {
         this.appointmentRepository = appointmentRepository;
+        this.stockOutbox = stockOutbox;
+        this.counterService = counterService;
+        this.slotRegistry = slotRegistry;
+        this.exportService = exportService;
         this.storageService = storageService;
-        this.hospitalClient = hospitalClient;
+        this.storageUploader = storageUploader;
+        this.contentStore = contentStore;
+        this.derivativeService = derivativeService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Transactional(readOnly = true)
     public List<AppointmentDto> getByCidDto(String cid) {
         validateCid(cid);
-        return appointmentRepository.findByCid(cid).stream()
-                .map(this::toDto)
+        return appointmentRepository.findWithPrescriptionsByCid(cid).stream()
+                .map(this::toListDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public AppointmentPageDto getPage(String cid, int page, int size, String status,
+            LocalDateTime from, LocalDateTime to) {
+        validateCid(cid);
+        int pageSize = clampPageSize(size);
+        Pageable pageable = PageRequest.of(Math.max(page, 0), pageSize,
+                Sort.by(Sort.Order.desc("dateTime"), Sort.Order.desc("id")));
+        Slice<Long> slice = appointmentRepository.findPageIds(cid, parseStatus(status), from, to, pageable);
+        List<Appointment> rows = loadWithPrescriptions(slice.getContent());
+        List<AppointmentDto> content = rows.stream()
+                .map(this::toListDto)
                 .collect(Collectors.toList());
+        // Offset pages continue by page number; only getPageAfter hands out a keyset cursor
+        return new AppointmentPageDto(content, slice.getNumber(), pageSize, slice.hasNext(), null);
     }
 
-    public List<Appointment> getByCid(String cid) {
+    @Transactional(readOnly = true)
+    public AppointmentPageDto getPageAfter(String cid, String cursor, Long afterId, LocalDateTime afterDateTime,
+            int size, String status, LocalDateTime from, LocalDateTime to) {
         validateCid(cid);
-        return appointmentRepository.findByCid(cid);
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            try {
+                afterDateTime = LocalDateTime.parse(parts[0]);
+                afterId = Long.valueOf(parts[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        if (afterDateTime != null && afterId == null) {
+            afterId = Long.MAX_VALUE;
+        }
+
+        int pageSize = clampPageSize(size);
+        List<Long> ids = appointmentRepository.findPageIdsAfter(cid, parseStatus(status), from, to,
+                afterDateTime, afterId, PageRequest.of(0, pageSize + 1));
+        boolean hasNext = ids.size() > pageSize;
+        if (hasNext) {
+            ids = ids.subList(0, pageSize);
+        }
+        List<Appointment> rows = loadWithPrescriptions(ids);
+        List<AppointmentDto> content = rows.stream()
+                .map(this::toListDto)
+                .collect(Collectors.toList());
+        return new AppointmentPageDto(content, null, pageSize, hasNext,
+                hasNext ? encodeCursor(rows) : null);
+    }
+
+    // Access is checked here, on the request thread; the rows are written later by the returned body
+    public StreamingResponseBody export(String cid, String format, LocalDateTime from, LocalDateTime to,
+            boolean gzip) {
+        validateCid(cid);
+        AppointmentExportService.Format exportFormat;
+        try {
+            exportFormat = AppointmentExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+        return out -> exportService.write(cid, exportFormat, from, to, gzip, out);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AppointmentDto> getDoctorSchedule(String cid, Long doctorId, LocalDate from, LocalDate to) {
+        validateCid(cid);
+        LocalDate end = to != null ? to : from;
+        if (end.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, end) >= MAX_SCHEDULE_DAYS) {
+            throw new IllegalArgumentException("Schedule range is limited to " + MAX_SCHEDULE_DAYS + " days");
+        }
+        return appointmentRepository.findDoctorSchedule(cid, doctorId, from.atStartOfDay(),
+                        end.plusDays(1).atStartOfDay()).stream()
+                .map(this::toListDto)
+                .collect(Collectors.toList());
     }
 
-    public List<Appointment> getByDoctor(String cid, Long doctorId) {
+    @Transactional(readOnly = true)
+    public List<AppointmentDto> getByDoctor(String cid, Long doctorId) {
         validateCid(cid);
-        return appointmentRepository.findByCidAndDoctorId(cid, doctorId);
+        return appointmentRepository.findWithPrescriptionsByCidAndDoctorId(cid, doctorId).stream()
+                .map(this::toListDto)
+                .collect(Collectors.toList());
+    }
+
+    // Detail view: the only read path that loads the lazy notes, diagnosis and advice
+    @Transactional(readOnly = true)
+    public AppointmentDto getDetail(Long id) {
+        return toDto(getById(id));
     }
 
     public Appointment getById(Long id) {
@@ -63,7 +186,7 @@ public class AppointmentService {
     }
 
     @Transactional
-    public Appointment create(AppointmentDto dto) {
+    public AppointmentDto create(AppointmentDto dto) {
         Appointment appointment = Appointment.builder()
                 .cid(dto.getCid())
                 .doctorId(dto.getDoctorId())
@@ -79,17 +202,21 @@ public class AppointmentService {
             appointment.setPrescription(mapPrescription(dto.getPrescription(), appointment));
         }
 
-        Appointment saved = appointmentRepository.save(appointment);
+        slotRegistry.reserve(appointment.getCid(), appointment.getDoctorId(), appointment.getDateTime(),
+                appointment.getStatus());
+        Appointment saved = saveBooking(appointment);
+        counterService.onCreated(saved);
         if (saved.getStatus() == AppointmentStatus.COMPLETED) {
             triggerStockDeduction(saved);
         }
-        return saved;
+        return toDto(saved);
     }
 
     @Transactional
-    public Appointment update(Long id, AppointmentDto dto) {
+    public AppointmentDto update(Long id, AppointmentDto dto) {
         Appointment appointment = getById(id);
         AppointmentStatus oldStatus = appointment.getStatus();
+        LocalDateTime oldDateTime = appointment.getDateTime();
 
         // Capture old medicines before update if it was completed
         Map<String, Integer> oldMedicines = Map.of();
@@ -99,16 +226,19 @@ public class AppointmentService {
                             (v1, v2) -> v1 + v2));
         }
 
+        AppointmentStatus newStatus = dto.getStatus() != null
+                ? AppointmentStatus.valueOf(dto.getStatus().toUpperCase())
+                : oldStatus;
+        slotRegistry.move(appointment.getCid(), appointment.getDoctorId(), oldDateTime, oldStatus,
+                dto.getDoctorId(), dto.getDateTime(), newStatus);
+
         appointment.setDoctorId(dto.getDoctorId());
         appointment.setPatientId(dto.getPatientId());
         appointment.setDateTime(dto.getDateTime());
         appointment.setNotes(dto.getNotes());
         appointment.setDoctorName(dto.getDoctorName());
         appointment.setPatientName(dto.getPatientName());
-
-        if (dto.getStatus() != null) {
-            appointment.setStatus(AppointmentStatus.valueOf(dto.getStatus().toUpperCase()));
-        }
+        appointment.setStatus(newStatus);
 
         if (dto.getPrescription() != null) {
             if (appointment.getPrescription() != null) {
@@ -118,7 +248,8 @@ public class AppointmentService {
             }
         }
 
-        Appointment saved = appointmentRepository.save(appointment);
+        Appointment saved = saveBooking(appointment);
+        counterService.onChanged(oldDateTime, oldStatus, saved);
 
         // Handle stock transitions
         if (oldStatus != AppointmentStatus.COMPLETED && saved.getStatus() == AppointmentStatus.COMPLETED) {
@@ -127,72 +258,245 @@ public class AppointmentService {
         } else if (oldStatus == AppointmentStatus.COMPLETED && saved.getStatus() != AppointmentStatus.COMPLETED) {
             // Was completed, now cancelled/booked: restore everything
             // Use old medicines map for restoration
-            restoreStockFromMap(saved.getCid(), oldMedicines);
+            restoreStockFromMap(saved.getCid(), saved.getId(), oldMedicines);
         } else if (oldStatus == AppointmentStatus.COMPLETED && saved.getStatus() == AppointmentStatus.COMPLETED) {
             // Remained completed: apply differential
-            handleStockUpdate(saved.getCid(), oldMedicines, dto.getPrescription());
+            handleStockUpdate(saved.getCid(), saved.getId(), oldMedicines, dto.getPrescription());
         }
-        return saved;
+        return toDto(saved);
     }
 
     @Transactional
-    public Appointment updateStatus(Long id, String status) {
+    public AppointmentDto updateStatus(Long id, String status) {
         Appointment appointment = getById(id);
         AppointmentStatus oldStatus = appointment.getStatus();
         AppointmentStatus newStatus = AppointmentStatus.valueOf(status.toUpperCase());
+        slotRegistry.move(appointment.getCid(), appointment.getDoctorId(), appointment.getDateTime(), oldStatus,
+                appointment.getDoctorId(), appointment.getDateTime(), newStatus);
         appointment.setStatus(newStatus);
-        Appointment saved = appointmentRepository.save(appointment);
+        Appointment saved = saveBooking(appointment);
+        counterService.onChanged(saved.getDateTime(), oldStatus, saved);
 
         if (oldStatus != AppointmentStatus.COMPLETED && newStatus == AppointmentStatus.COMPLETED) {
             triggerStockDeduction(saved);
         } else if (oldStatus == AppointmentStatus.COMPLETED && newStatus != AppointmentStatus.COMPLETED) {
             triggerStockRestoration(saved);
         }
-        return saved;
+        return toDto(saved);
     }
 
-    public Appointment uploadImages(Long id, MultipartFile[] files) {
+    /**
+     * Uploads the files concurrently and records their URLs once every upload has finished.
+     * Validation happens on the caller's thread; the returned future completes on an upload thread.
+     */
+    public CompletableFuture<AppointmentDto> uploadImages(Long id, MultipartFile[] files) {
         Appointment appointment = getById(id);
 
         if (files.length > 2) {
             throw new IllegalArgumentException("Maximum 2 images allowed per appointment");
         }
 
-        for (int i = 0; i < files.length; i++) {
-            String url = storageService.uploadFile(files[i], "appointments/" + id);
-            if (i == 0 && appointment.getImageUrl1() == null) {
-                appointment.setImageUrl1(url);
-            } else {
-                appointment.setImageUrl2(url);
-            }
+        List<CompletableFuture<String>> uploads = new ArrayList<>();
+        for (MultipartFile file : files) {
+            uploads.add(storageUploader.upload(appointment.getCid(), file));
+        }
+        boolean firstSlotFree = appointment.getImageUrl1() == null;
+
+        return CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new))
+                .thenApply(done -> transactionTemplate.execute(status -> {
+                    Appointment current = appointmentRepository.findById(id)
+                            .orElseThrow(() -> new ResourceNotFoundException("Appointment", id));
+                    for (int i = 0; i < uploads.size(); i++) {
+                        String url = uploads.get(i).join();
+                        if (i == 0 && firstSlotFree) {
+                            setImage(current, 1, url);
+                        } else {
+                            // Overwriting the second slot drops the reference the old image held
+                            contentStore.releaseAfterCommit(current.getImageUrl2());
+                            setImage(current, 2, url);
+                        }
+                    }
+                    // Mapped inside the transaction: the entity is detached once it ends
+                    return toDto(appointmentRepository.save(current));
+                }))
+                .whenComplete((dto, e) -> {
+                    if (e != null) {
+                        // Nothing recorded the new images, so give back the references their uploads took
+                        for (CompletableFuture<String> upload : uploads) {
+                            if (!upload.isCompletedExceptionally()) {
+                                contentStore.releaseAfterCommit(upload.join());
+                            }
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Issues a presigned PUT for a new image under the appointment's folder. The client uploads
+     * the bytes straight to storage and then calls {@link #confirmImage}.
+     */
+    public PresignedUrlDto presignImageUpload(Long id, String fileName, String contentType) {
+        Appointment appointment = getById(id);
+        if (appointment.getImageUrl1() != null && appointment.getImageUrl2() != null) {
+            throw new IllegalArgumentException("Maximum 2 images allowed per appointment");
+        }
+        return storageService.presignUpload(storageService.newObjectKey(imageFolder(id), fileName), contentType);
+    }
+
+    @Transactional
+    public AppointmentDto confirmImage(Long id, String objectKey) {
+        Appointment appointment = getById(id);
+        if (!objectKey.startsWith(imageFolder(id) + "/") || objectKey.contains("..")) {
+            throw new IllegalArgumentException("Object key does not belong to this appointment");
+        }
+        if (!storageService.exists(objectKey)) {
+            throw new IllegalArgumentException("Object has not been uploaded: " + objectKey);
         }
+        String url = storageService.urlFor(objectKey);
+        if (url.equals(appointment.getImageUrl1()) || url.equals(appointment.getImageUrl2())) {
+            return toDto(appointment);
+        }
+        if (appointment.getImageUrl1() == null) {
+            setImage(appointment, 1, url);
+        } else if (appointment.getImageUrl2() == null) {
+            setImage(appointment, 2, url);
+        } else {
+            throw new IllegalArgumentException("Maximum 2 images allowed per appointment");
+        }
+        return toDto(appointmentRepository.save(appointment));
+    }
+
+    // Clears the slot's derivatives, which are regenerated for the new image after commit
+    private void setImage(Appointment appointment, int slot, String url) {
+        if (slot == 1) {
+            appointment.setImageUrl1(url);
+            appointment.setThumbnailUrl1(null);
+            appointment.setMediumUrl1(null);
+        } else {
+            appointment.setImageUrl2(url);
+            appointment.setThumbnailUrl2(null);
+            appointment.setMediumUrl2(null);
+        }
+        derivativeService.generateAfterCommit(appointment.getId(), slot, url);
+    }
 
-        return appointmentRepository.save(appointment);
+    /**
+     * Presigns the image in {@code slot}, or its thumbnail or medium copy when {@code variant} is
+     * given. A copy that has not been generated yet falls back to the original.
+     */
+    public PresignedUrlDto presignImageDownload(Long id, int slot, ImageDerivativeService.Variant variant) {
+        Appointment appointment = getById(id);
+        if (slot != 1 && slot != 2) {
+            throw new IllegalArgumentException("Image slot must be 1 or 2");
+        }
+        String original = slot == 1 ? appointment.getImageUrl1() : appointment.getImageUrl2();
+        if (original == null) {
+            throw new ResourceNotFoundException("Appointment image", (long) slot);
+        }
+        String derivative = variant == null ? null : switch (variant) {
+            case THUMBNAIL -> slot == 1 ? appointment.getThumbnailUrl1() : appointment.getThumbnailUrl2();
+            case MEDIUM -> slot == 1 ? appointment.getMediumUrl1() : appointment.getMediumUrl2();
+        };
+        String url = derivative != null ? derivative : original;
+        String objectKey = storageService.resolveObjectKey(url);
+        if (objectKey == null) {
+            throw new IllegalArgumentException("Image is not held by the configured storage");
+        }
+        return storageService.presignDownload(objectKey);
     }
 
+    @Transactional
     public void delete(Long id) {
         Appointment appointment = getById(id);
         if (appointment.getStatus() == AppointmentStatus.COMPLETED) {
             triggerStockRestoration(appointment);
         }
         appointmentRepository.deleteById(id);
+        contentStore.releaseAfterCommit(appointment.getImageUrl1());
+        contentStore.releaseAfterCommit(appointment.getImageUrl2());
+        counterService.onDeleted(appointment);
+        slotRegistry.release(appointment.getCid(), appointment.getDoctorId(), appointment.getDateTime(),
+                appointment.getStatus());
     }
 
     public AppointmentStatsDto getStats(String cid) {
         if (com.hms.common.security.SecurityUtils.isSuperAdmin()) {
-            long total = appointmentRepository.count();
-            LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-            LocalDateTime endOfDay = LocalDate.now().atTime(LocalTime.MAX);
-            long today = appointmentRepository.countByDateTimeBetween(startOfDay, endOfDay);
-            return new AppointmentStatsDto(total, today);
+            return counterService.getStats(null);
         }
 
         validateCid(cid);
-        long total = appointmentRepository.countByCid(cid);
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = LocalDate.now().atTime(LocalTime.MAX);
-        long today = appointmentRepository.countByCidAndDateTimeBetween(cid, startOfDay, endOfDay);
-        return new AppointmentStatsDto(total, today);
+        return counterService.getStats(cid);
+    }
+
+    public void rebuildStats() {
+        counterService.rebuild();
+    }
+
+    /**
+     * Saves a booking change and flushes it, so a clash on {@link Appointment#ACTIVE_SLOT_CONSTRAINT}
+     * surfaces here as a 400. The slot registry is only a fast pre-check; the constraint also catches
+     * bookings made through another instance or after the registry dropped the day.
+     */
+    private Appointment saveBooking(Appointment appointment) {
+        try {
+            return appointmentRepository.saveAndFlush(appointment);
+        } catch (DataIntegrityViolationException e) {
+            String cause = String.valueOf(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            if (cause.contains(Appointment.ACTIVE_SLOT_CONSTRAINT)) {
+                throw new IllegalArgumentException("Doctor already has an appointment at " + appointment.getDateTime());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Loads the given appointments with their prescriptions and medicines in one query and
+     * returns them in the order of {@code ids}, so a page costs two statements regardless of size.
+     */
+    private List<Appointment> loadWithPrescriptions(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Appointment> byId = appointmentRepository.findWithPrescriptionsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Appointment::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private String imageFolder(Long appointmentId) {
+        return "appointments/" + appointmentId;
+    }
+
+    private int clampPageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    private AppointmentStatus parseStatus(String status) {
+        return status == null || status.isBlank() ? null : AppointmentStatus.valueOf(status.toUpperCase());
+    }
+
+    private String encodeCursor(List<Appointment> rows) {
+        if (rows.isEmpty() || rows.get(rows.size() - 1).getDateTime() == null) {
+            return null;
+        }
+        Appointment last = rows.get(rows.size() - 1);
+        String raw = last.getDateTime() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
     }
 
     private void validateCid(String cid) {
@@ -211,7 +515,7 @@ public class AppointmentService {
                             "medicineName", (Object) m.getMedicineName(),
                             "quantity", (Object) m.getQuantity()))
                     .collect(Collectors.toList());
-            hospitalClient.deductStock(appt.getCid(), medicines);
+            stockOutbox.enqueue(appt.getCid(), appt.getId(), StockMovementType.DEDUCT, medicines);
         }
     }
 
@@ -222,14 +526,15 @@ public class AppointmentService {
                             "medicineName", (Object) m.getMedicineName(),
                             "quantity", (Object) m.getQuantity()))
                     .collect(Collectors.toList());
-            hospitalClient.restoreStock(appt.getCid(), medicines);
+            stockOutbox.enqueue(appt.getCid(), appt.getId(), StockMovementType.RESTORE, medicines);
         }
     }
 
-    private void handleStockUpdate(String cid, Map<String, Integer> oldMedicines, PrescriptionDto newPrescription) {
+    private void handleStockUpdate(String cid, Long appointmentId, Map<String, Integer> oldMedicines,
+            PrescriptionDto newPrescription) {
         if (newPrescription == null) {
             // If prescription removed while remaining completed, restore all old stock
-            restoreStockFromMap(cid, oldMedicines);
+            restoreStockFromMap(cid, appointmentId, oldMedicines);
             return;
         }
 
@@ -261,21 +566,49 @@ public class AppointmentService {
         }
 
         if (!toDeduct.isEmpty())
-            hospitalClient.deductStock(cid, toDeduct);
+            stockOutbox.enqueue(cid, appointmentId, StockMovementType.DEDUCT, toDeduct);
         if (!toRestore.isEmpty())
-            hospitalClient.restoreStock(cid, toRestore);
+            stockOutbox.enqueue(cid, appointmentId, StockMovementType.RESTORE, toRestore);
     }
 
-    private void restoreStockFromMap(String cid, Map<String, Integer> medicines) {
+    private void restoreStockFromMap(String cid, Long appointmentId, Map<String, Integer> medicines) {
         if (medicines.isEmpty())
             return;
         List<Map<String, Object>> list = medicines.entrySet().stream()
                 .map(e -> Map.of("medicineName", (Object) e.getKey(), "quantity", (Object) e.getValue()))
                 .collect(Collectors.toList());
-        hospitalClient.restoreStock(cid, list);
+        stockOutbox.enqueue(cid, appointmentId, StockMovementType.RESTORE, list);
     }
 
     private AppointmentDto toDto(Appointment appt) {
+        return toDto(appt, true);
+    }
+
+    // List rows leave out the free-text columns, so mapping them never triggers the lazy loads
+    private AppointmentDto toListDto(Appointment appt) {
+        return toDto(appt, false);
+    }
+
+    /**
+     * Stored URLs identify objects but are not fetchable from private storage (local signed URLs,
+     * private buckets), so responses carry a time-limited download URL instead.
+     */
+    private String downloadUrl(String storedUrl) {
+        if (storedUrl == null) {
+            return null;
+        }
+        String objectKey = storageService.resolveObjectKey(storedUrl);
+        return objectKey == null ? storedUrl : storageService.presignDownload(objectKey).getUrl();
+    }
+
+    private static String preview(String text) {
+        if (text == null || text.length() <= Appointment.NOTES_PREVIEW_LENGTH) {
+            return text;
+        }
+        return text.substring(0, Appointment.NOTES_PREVIEW_LENGTH) + "\u2026";
+    }
+
+    private AppointmentDto toDto(Appointment appt, boolean withText) {
         AppointmentDto dto = new AppointmentDto();
         dto.setId(appt.getId());
         dto.setCid(appt.getCid());
@@ -283,9 +616,17 @@ public class AppointmentService {
         dto.setPatientId(appt.getPatientId());
         dto.setDateTime(appt.getDateTime());
         dto.setStatus(appt.getStatus().name());
-        dto.setNotes(appt.getNotes());
-        dto.setImageUrl1(appt.getImageUrl1());
-        dto.setImageUrl2(appt.getImageUrl2());
+        if (withText) {
+            dto.setNotes(appt.getNotes());
+        } else {
+            dto.setNotesPreview(preview(appt.getNotesPreview()));
+        }
+        dto.setImageUrl1(downloadUrl(appt.getImageUrl1()));
+        dto.setImageUrl2(downloadUrl(appt.getImageUrl2()));
+        dto.setThumbnailUrl1(downloadUrl(appt.getThumbnailUrl1()));
+        dto.setMediumUrl1(downloadUrl(appt.getMediumUrl1()));
+        dto.setThumbnailUrl2(downloadUrl(appt.getThumbnailUrl2()));
+        dto.setMediumUrl2(downloadUrl(appt.getMediumUrl2()));
         dto.setDoctorName(appt.getDoctorName());
         dto.setPatientName(appt.getPatientName());
 
@@ -293,8 +634,8 @@ public class AppointmentService {
             Prescription p = appt.getPrescription();
             PrescriptionDto pDto = PrescriptionDto.builder()
                     .id(p.getId())
-                    .diagnosis(p.getDiagnosis())
-                    .advice(p.getAdvice())
+                    .diagnosis(withText ? p.getDiagnosis() : null)
+                    .advice(withText ? p.getAdvice() : null)
                     .medicines(p.getMedicines().stream()
                             .map(m -> PrescriptionDto.PrescribedMedicineDto.builder()
                                     .medicineName(m.getMedicineName())
@@ -0,0 +1,237 @@
+package com.hms.appointment.service;
+
+import com.hms.appointment.dto.AppointmentDto;
+import com.hms.appointment.dto.UploadPartDto;
+import com.hms.appointment.dto.UploadSessionDto;
+import com.hms.appointment.entity.Appointment;
+import com.hms.appointment.entity.UploadSession;
+import com.hms.appointment.entity.UploadSessionStatus;
+import com.hms.appointment.repository.UploadSessionRepository;
+import com.hms.common.exception.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Resumable uploads of large appointment images. Each session maps onto a multipart upload in
+ * object storage: chunks are streamed straight into parts, may arrive in parallel and in any
+ * order, and the storage backend's part list is the source of truth when a client resumes.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    // S3 rejects non-final parts below 5 MiB and allows at most 10,000 parts
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final int MAX_PARTS = 10_000;
+
+    private final UploadSessionRepository sessionRepository;
+    private final AppointmentService appointmentService;
+    private final StorageService storageService;
+    private final TransactionTemplate transactionTemplate;
+    private final long partSize;
+    private final long maxFileSize;
+    private final long sessionTtlHours;
+
+    public ChunkedUploadService(UploadSessionRepository sessionRepository,
+            AppointmentService appointmentService,
+            StorageService storageService,
+            PlatformTransactionManager transactionManager,
+            @Value("${storage.multipart.part-size:8388608}") long partSize,
+            @Value("${storage.multipart.max-file-size:2147483648}") long maxFileSize,
+            @Value("${storage.multipart.session-ttl-hours:24}") long sessionTtlHours) {
+        this.sessionRepository = sessionRepository;
+        this.appointmentService = appointmentService;
+        this.storageService = storageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.partSize = Math.max(partSize, MIN_PART_SIZE);
+        this.maxFileSize = maxFileSize;
+        this.sessionTtlHours = sessionTtlHours;
+    }
+
+    public UploadSessionDto start(Long appointmentId, String fileName, String contentType, Long size) {
+        Appointment appointment = appointmentService.getById(appointmentId);
+        if (appointment.getImageUrl1() != null && appointment.getImageUrl2() != null) {
+            throw new IllegalArgumentException("Maximum 2 images allowed per appointment");
+        }
+        if (size != null && size > maxFileSize) {
+            throw new IllegalArgumentException("File exceeds the maximum size of " + maxFileSize + " bytes");
+        }
+
+        String objectKey = storageService.newObjectKey("appointments/" + appointmentId, fileName);
+        LocalDateTime now = LocalDateTime.now();
+        UploadSession session = sessionRepository.save(UploadSession.builder()
+                .id(UUID.randomUUID().toString())
+                .cid(appointment.getCid())
+                .appointmentId(appointmentId)
+                .objectKey(objectKey)
+                .storageUploadId(storageService.createMultipartUpload(objectKey, contentType))
+                .contentType(contentType)
+                .totalSize(size)
+                .partSize(partSize)
+                .createdAt(now)
+                .lastActivityAt(now)
+                .build());
+        return toDto(session, List.of());
+    }
+
+    public UploadSessionDto get(Long appointmentId, String sessionId) {
+        UploadSession session = load(appointmentId, sessionId);
+        List<UploadPartDto> parts = session.getStatus() == UploadSessionStatus.ACTIVE
+                ? storageService.listParts(session.getObjectKey(), session.getStorageUploadId())
+                : List.of();
+        return toDto(session, parts);
+    }
+
+    /**
+     * Streams one chunk into storage as part {@code partNumber}. Re-sending a part replaces it.
+     * Every part but the last must be exactly the session's part size; when the total size is
+     * unknown, a short part is taken as the last one and checked again on completion.
+     */
+    public UploadPartDto uploadPart(Long appointmentId, String sessionId, int partNumber,
+            InputStream data, long length) {
+        UploadSession session = loadActive(appointmentId, sessionId);
+        if (partNumber < 1 || partNumber > MAX_PARTS) {
+            throw new IllegalArgumentException("Part number must be between 1 and " + MAX_PARTS);
+        }
+        if (length <= 0) {
+            throw new IllegalArgumentException("Content-Length is required for upload parts");
+        }
+        if (length > session.getPartSize()) {
+            throw new IllegalArgumentException("Part exceeds the session part size of " + session.getPartSize());
+        }
+        long offset = (long) (partNumber - 1) * session.getPartSize();
+        if (offset + length > maxFileSize) {
+            throw new IllegalArgumentException("File exceeds the maximum size of " + maxFileSize + " bytes");
+        }
+        if (session.getTotalSize() != null) {
+            long expected = Math.min(session.getPartSize(), session.getTotalSize() - offset);
+            if (expected <= 0) {
+                throw new IllegalArgumentException("Part " + partNumber + " is beyond the end of the file");
+            }
+            if (length != expected) {
+                throw new IllegalArgumentException("Part " + partNumber + " must be " + expected + " bytes");
+            }
+        }
+        String etag = storageService.uploadPart(session.getObjectKey(), session.getStorageUploadId(),
+                partNumber, data, length);
+        transactionTemplate.executeWithoutResult(status ->
+                sessionRepository.touch(session.getId(), LocalDateTime.now()));
+        return new UploadPartDto(partNumber, etag, length);
+    }
+
+    public AppointmentDto complete(Long appointmentId, String sessionId) {
+        UploadSession session = loadActive(appointmentId, sessionId);
+        // Retrying after the storage side finished but attaching the image failed
+        if (storageService.exists(session.getObjectKey())) {
+            return confirm(appointmentId, session);
+        }
+        List<UploadPartDto> parts = storageService.listParts(session.getObjectKey(), session.getStorageUploadId());
+        if (parts.isEmpty()) {
+            throw new IllegalArgumentException("No parts have been uploaded");
+        }
+        for (int i = 0; i < parts.size(); i++) {
+            if (parts.get(i).getPartNumber() != i + 1) {
+                throw new IllegalArgumentException("Part " + (i + 1) + " is missing");
+            }
+            // Storage would reject the whole upload; name the short part instead
+            if (i < parts.size() - 1 && parts.get(i).getSize() < MIN_PART_SIZE) {
+                throw new IllegalArgumentException("Part " + (i + 1) + " is smaller than "
+                        + MIN_PART_SIZE + " bytes and is not the last part");
+            }
+        }
+        long uploaded = parts.stream().mapToLong(UploadPartDto::getSize).sum();
+        if (session.getTotalSize() != null && uploaded != session.getTotalSize()) {
+            throw new IllegalArgumentException("Uploaded " + uploaded + " of " + session.getTotalSize() + " bytes");
+        }
+        // Checked again on confirm; failing here keeps the parts, so the upload can still finish once a slot frees up
+        Appointment appointment = appointmentService.getById(appointmentId);
+        if (appointment.getImageUrl1() != null && appointment.getImageUrl2() != null) {
+            throw new IllegalArgumentException("Maximum 2 images allowed per appointment");
+        }
+
+        storageService.completeMultipartUpload(session.getObjectKey(), session.getStorageUploadId(), parts);
+        return confirm(appointmentId, session);
+    }
+
+    // The session only counts as completed together with the image it attached
+    private AppointmentDto confirm(Long appointmentId, UploadSession session) {
+        try {
+            return transactionTemplate.execute(status -> {
+                AppointmentDto appointment = appointmentService.confirmImage(appointmentId, session.getObjectKey());
+                session.setStatus(UploadSessionStatus.COMPLETED);
+                sessionRepository.save(session);
+                return appointment;
+            });
+        } catch (RuntimeException e) {
+            discard(session);
+            throw e;
+        }
+    }
+
+    // The assembled object is attached to nothing; remove it rather than leave it to pile up in storage
+    private void discard(UploadSession session) {
+        try {
+            storageService.deleteObject(session.getObjectKey());
+        } catch (RuntimeException e) {
+            log.warn("Could not delete unattached upload {}: {}", session.getObjectKey(), e.getMessage());
+        }
+        session.setStatus(UploadSessionStatus.ABORTED);
+        sessionRepository.save(session);
+    }
+
+    public void abort(Long appointmentId, String sessionId) {
+        abort(loadActive(appointmentId, sessionId));
+    }
+
+    // Abandoned sessions still hold their parts in storage; release them once no part has arrived for the TTL
+    @Scheduled(fixedDelayString = "${storage.multipart.cleanup-interval-ms:3600000}")
+    public void abortExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(sessionTtlHours);
+        for (UploadSession session : sessionRepository.findByStatusAndLastActivityAtBefore(
+                UploadSessionStatus.ACTIVE, cutoff)) {
+            try {
+                abort(session);
+            } catch (RuntimeException e) {
+                log.warn("Could not abort expired upload session {}: {}", session.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private void abort(UploadSession session) {
+        storageService.abortMultipartUpload(session.getObjectKey(), session.getStorageUploadId());
+        session.setStatus(UploadSessionStatus.ABORTED);
+        sessionRepository.save(session);
+    }
+
+    private UploadSession loadActive(Long appointmentId, String sessionId) {
+        UploadSession session = load(appointmentId, sessionId);
+        if (session.getStatus() != UploadSessionStatus.ACTIVE) {
+            throw new IllegalArgumentException("Upload session is " + session.getStatus().name().toLowerCase());
+        }
+        return session;
+    }
+
+    // Checks tenant access through the appointment before touching the session
+    private UploadSession load(Long appointmentId, String sessionId) {
+        appointmentService.getById(appointmentId);
+        return sessionRepository.findById(sessionId)
+                .filter(s -> s.getAppointmentId().equals(appointmentId))
+                .orElseThrow(() -> new ResourceNotFoundException("Upload session not found: " + sessionId));
+    }
+
+    private UploadSessionDto toDto(UploadSession session, List<UploadPartDto> parts) {
+        return new UploadSessionDto(session.getId(), session.getAppointmentId(), session.getObjectKey(),
+                session.getPartSize(), session.getStatus().name(), parts);
+    }
+}
@@ -0,0 +1,199 @@
+package com.hms.appointment.service;
+
+import com.hms.appointment.entity.StoredObject;
+import com.hms.appointment.repository.StoredObjectRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * Stores uploaded images under their tenant and SHA-256 ({@code cas/<cid>/<hash>}), so re-uploading
+ * the same file costs a hash and a row update instead of another PUT. References are counted in
+ * stored_objects and the object is deleted with its last reference. Objects are never shared
+ * between tenants.
+ */
+@Service
+public class ContentAddressedStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentAddressedStore.class);
+    private static final String PREFIX = "cas/";
+    // Each retry follows a release that deleted the object between our upload and our reference
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final StorageService storageService;
+    private final StoredObjectRepository storedObjectRepository;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate requiresNew;
+    private final Counter deduplicated;
+
+    public ContentAddressedStore(StorageService storageService,
+            StoredObjectRepository storedObjectRepository,
+            PlatformTransactionManager transactionManager,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.storageService = storageService;
+        this.storedObjectRepository = storedObjectRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        this.deduplicated = registry == null ? null : Counter.builder("hms.storage.deduplicated")
+                .description("Uploads whose content was already stored")
+                .register(registry);
+    }
+
+    /**
+     * Stores the file (or finds an identical one of the same tenant) and returns its URL with one
+     * reference added. The reference commits here, so a caller that fails to record the URL must
+     * hand it to {@link #releaseAfterCommit}.
+     */
+    public String store(String cid, MultipartFile file) {
+        // The servlet container has already buffered the part, so hashing re-reads it locally
+        String hash = sha256(file);
+        String objectKey = PREFIX + cid + "/" + hash;
+        if (addReference(cid, hash)) {
+            if (deduplicated != null) {
+                deduplicated.increment();
+            }
+            return storageService.urlFor(objectKey);
+        }
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            ensureRow(cid, hash, objectKey, file.getSize(), file.getContentType());
+            // No lock is held during the PUT; a concurrent store of the same content writes the same bytes
+            try (InputStream in = file.getInputStream()) {
+                storageService.putObject(objectKey, in, file.getSize(), file.getContentType());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            Boolean referenced = transaction.execute(status -> storedObjectRepository.findForUpdate(cid, hash)
+                    .map(stored -> {
+                        stored.setRefCount(stored.getRefCount() + 1);
+                        storedObjectRepository.save(stored);
+                        return true;
+                    })
+                    // The last reference was released meanwhile and took our upload with it
+                    .orElse(false));
+            if (Boolean.TRUE.equals(referenced)) {
+                return storageService.urlFor(objectKey);
+            }
+        }
+        throw new IllegalStateException("Stored object kept disappearing, please retry");
+    }
+
+    /**
+     * Drops one reference to the object behind {@code url} once the current transaction commits.
+     * Objects stored outside the content-addressed area have a single owner and are deleted directly.
+     */
+    public void releaseAfterCommit(String url) {
+        if (url == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseQuietly(url);
+                }
+            });
+        } else {
+            releaseQuietly(url);
+        }
+    }
+
+    private void releaseQuietly(String url) {
+        try {
+            release(url);
+        } catch (RuntimeException e) {
+            log.warn("Could not release stored object {}: {}", url, e.getMessage());
+        }
+    }
+
+    private void release(String url) {
+        String objectKey = storageService.resolveObjectKey(url);
+        if (objectKey == null) {
+            return;
+        }
+        if (!objectKey.startsWith(PREFIX)) {
+            deleteWithDerivatives(objectKey);
+            return;
+        }
+        String path = objectKey.substring(PREFIX.length());
+        int slash = path.lastIndexOf('/');
+        String cid = slash < 0 ? null : path.substring(0, slash);
+        String hash = path.substring(slash + 1);
+        requiresNew.executeWithoutResult(status -> (cid == null
+                        ? storedObjectRepository.findSharedForUpdate(hash)
+                        : storedObjectRepository.findForUpdate(cid, hash))
+                .ifPresent(stored -> {
+                    long remaining = Math.max(stored.getRefCount() - 1, 0);
+                    if (remaining > 0) {
+                        stored.setRefCount(remaining);
+                        storedObjectRepository.save(stored);
+                        return;
+                    }
+                    // Deleted while the row is locked, so a concurrent store finds no row and re-uploads
+                    deleteWithDerivatives(objectKey);
+                    storedObjectRepository.delete(stored);
+                }));
+    }
+
+    private void deleteWithDerivatives(String objectKey) {
+        storageService.deleteObject(objectKey);
+        for (ImageDerivativeService.Variant variant : ImageDerivativeService.Variant.values()) {
+            storageService.deleteObject(variant.keyFor(objectKey));
+        }
+    }
+
+    // Only succeeds while the object has references, i.e. is stored and not being deleted
+    private boolean addReference(String cid, String hash) {
+        Integer updated = transaction.execute(status -> storedObjectRepository.addReference(cid, hash));
+        return updated != null && updated > 0;
+    }
+
+    // Inserted in its own transaction so a concurrent insert of the same hash only loses the race
+    private void ensureRow(String cid, String hash, String objectKey, long size, String contentType) {
+        try {
+            requiresNew.executeWithoutResult(status -> storedObjectRepository.saveAndFlush(StoredObject.builder()
+                    .cid(cid)
+                    .contentHash(hash)
+                    .objectKey(objectKey)
+                    .size(size)
+                    .contentType(contentType)
+                    .createdAt(LocalDateTime.now())
+                    .build()));
+        } catch (DataIntegrityViolationException e) {
+            // Another upload of the same content created it first
+        }
+    }
+
+    private static String sha256(MultipartFile file) {
+        try (DigestInputStream in = new DigestInputStream(file.getInputStream(),
+                MessageDigest.getInstance("SHA-256"))) {
+            in.transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(in.getMessageDigest().digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
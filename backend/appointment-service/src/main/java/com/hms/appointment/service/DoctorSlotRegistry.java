@@ -0,0 +1,158 @@
+package com.hms.appointment.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.hms.appointment.entity.AppointmentStatus;
+import com.hms.appointment.repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Occupied booking slots per doctor and day, held as a bitmap so a double booking is detected
+ * without touching the database. A day is loaded from the appointments table on first use.
+ *
+ * <p>Reservations are made inside the booking transaction and undone if it rolls back; slots
+ * freed by a cancellation, reschedule or delete are released only after commit. The registry
+ * is a per-instance pre-check: a day evicted from the cache is reloaded without the
+ * reservations of transactions still in flight, and other instances keep their own copy. The
+ * unique key on (cid, doctor_id, active_date_time) is what finally rejects a double booking.
+ *
+ * <p>With the default one-minute slot, only bookings that start in the same minute clash,
+ * matching the database key. A longer {@code appointment.slot-minutes} also rejects bookings
+ * that start anywhere within an occupied slot.
+ */
+@Component
+public class DoctorSlotRegistry {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private record DayKey(String cid, Long doctorId, LocalDate day) {
+    }
+
+    private final AppointmentRepository appointmentRepository;
+    private final int slotMinutes;
+    private final LoadingCache<DayKey, BitSet> days;
+
+    public DoctorSlotRegistry(AppointmentRepository appointmentRepository,
+            @Value("${appointment.slot-minutes:1}") int slotMinutes,
+            @Value("${appointment.slot-cache.max-days:20000}") long maxDays) {
+        if (slotMinutes < 1 || MINUTES_PER_DAY % slotMinutes != 0) {
+            throw new IllegalArgumentException("appointment.slot-minutes must divide a day evenly");
+        }
+        this.appointmentRepository = appointmentRepository;
+        this.slotMinutes = slotMinutes;
+        this.days = Caffeine.newBuilder()
+                .maximumSize(maxDays)
+                .expireAfterAccess(Duration.ofHours(1))
+                .build(this::load);
+    }
+
+    /**
+     * Claims the slot for the current transaction. Call it before changing the managed entity,
+     * so a first load of the day does not flush and see the change itself.
+     *
+     * @throws IllegalArgumentException if another appointment of the doctor holds the slot
+     */
+    public void reserve(String cid, Long doctorId, LocalDateTime dateTime, AppointmentStatus status) {
+        if (dateTime == null || doctorId == null || status == AppointmentStatus.CANCELLED) {
+            return;
+        }
+        DayKey key = keyOf(cid, doctorId, dateTime);
+        int slot = slotOf(dateTime);
+        BitSet slots = days.get(key);
+        synchronized (slots) {
+            if (slots.get(slot)) {
+                throw new IllegalArgumentException("Doctor already has an appointment at " + slotStart(dateTime));
+            }
+            slots.set(slot);
+        }
+        // Undone in the bitmap it was made in: if the day was evicted and reloaded meanwhile, the
+        // current one never held this reservation, and its bit may belong to a committed booking
+        afterCompletion(committed -> {
+            if (!committed) {
+                clear(slots, slot);
+            }
+        });
+    }
+
+    /** Frees the slot held by an appointment with these values once the current transaction commits. */
+    public void release(String cid, Long doctorId, LocalDateTime dateTime, AppointmentStatus status) {
+        if (dateTime == null || doctorId == null || status == AppointmentStatus.CANCELLED) {
+            return;
+        }
+        DayKey key = keyOf(cid, doctorId, dateTime);
+        int slot = slotOf(dateTime);
+        afterCompletion(committed -> {
+            if (committed) {
+                clear(days.getIfPresent(key), slot);
+            }
+        });
+    }
+
+    /** Moves an appointment from its old slot to its new one, reserving before releasing. */
+    public void move(String cid, Long oldDoctorId, LocalDateTime oldDateTime, AppointmentStatus oldStatus,
+            Long newDoctorId, LocalDateTime newDateTime, AppointmentStatus newStatus) {
+        boolean unchanged = Objects.equals(oldDoctorId, newDoctorId)
+                && oldDateTime != null && newDateTime != null
+                && oldDateTime.toLocalDate().equals(newDateTime.toLocalDate())
+                && slotOf(oldDateTime) == slotOf(newDateTime)
+                && (oldStatus == AppointmentStatus.CANCELLED) == (newStatus == AppointmentStatus.CANCELLED);
+        if (unchanged) {
+            return;
+        }
+        reserve(cid, newDoctorId, newDateTime, newStatus);
+        release(cid, oldDoctorId, oldDateTime, oldStatus);
+    }
+
+    private BitSet load(DayKey key) {
+        LocalDateTime start = key.day().atStartOfDay();
+        BitSet slots = new BitSet(MINUTES_PER_DAY / slotMinutes);
+        for (LocalDateTime time : appointmentRepository.findOccupiedTimes(
+                key.cid(), key.doctorId(), start, start.plusDays(1))) {
+            slots.set(slotOf(time));
+        }
+        return slots;
+    }
+
+    private static void clear(BitSet slots, int slot) {
+        if (slots != null) {
+            synchronized (slots) {
+                slots.clear(slot);
+            }
+        }
+    }
+
+    private DayKey keyOf(String cid, Long doctorId, LocalDateTime dateTime) {
+        return new DayKey(cid, doctorId, dateTime.toLocalDate());
+    }
+
+    private int slotOf(LocalDateTime dateTime) {
+        return (dateTime.getHour() * 60 + dateTime.getMinute()) / slotMinutes;
+    }
+
+    private LocalDateTime slotStart(LocalDateTime dateTime) {
+        return dateTime.toLocalDate().atStartOfDay().plusMinutes((long) slotOf(dateTime) * slotMinutes);
+    }
+
+    private void afterCompletion(Consumer<Boolean> callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+}
@@ -1,33 +1,114 @@
 package com.hms.appointment.service;
 
+import com.hms.common.security.ServiceTokenProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Calls hospital-service through a pooled connection manager with a bulkhead capping concurrent
+ * calls and a circuit breaker. Rejected calls throw {@link HospitalServiceUnavailableException};
+ * callers that must not lose the call (the stock outbox) keep it queued and retry later.
+ */
 @Component
 public class HospitalClient {
 
     private final RestClient restClient;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
 
-    public HospitalClient(RestClient.Builder restClientBuilder) {
-        // Assuming hospital-service is on port 8082
-        this.restClient = restClientBuilder.baseUrl("http://localhost:8082").build();
+    public HospitalClient(RestClient.Builder restClientBuilder,
+            @Qualifier("hospitalRequestFactory") ClientHttpRequestFactory requestFactory,
+            @Value("${hospital-service.url:http://localhost:8082}") String baseUrl,
+            @Value("${hospital-service.bulkhead.max-concurrent:10}") int maxConcurrent,
+            @Value("${hospital-service.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${hospital-service.breaker.open-ms:30000}") long openMillis,
+            ServiceTokenProvider serviceTokens,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        // Stock endpoints only accept service tokens, never a forwarded user token
+        this.restClient = restClientBuilder
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                .requestInterceptor((request, body, execution) -> {
+                    request.getHeaders().setBearerAuth(serviceTokens.token());
+                    return execution.execute(request, body);
+                })
+                .build();
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openMillis);
+        this.meterRegistry = meterRegistry.getIfAvailable();
+        if (this.meterRegistry != null) {
+            Gauge.builder("hms.hospital.client.breaker.state", circuitBreaker, b -> b.getState().ordinal())
+                    .description("0 = closed, 1 = half open, 2 = open")
+                    .register(this.meterRegistry);
+            Gauge.builder("hms.hospital.client.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                    .register(this.meterRegistry);
+        }
     }
 
-    public void deductStock(String cid, List<Map<String, Object>> medicines) {
-        restClient.post()
-                .uri(uriBuilder -> uriBuilder.path("/api/medicines/deduct").queryParam("cid", cid).build())
-                .body(medicines)
+    /**
+     * Applies many stock lines ({@code reference}, {@code medicineName}, signed {@code delta})
+     * for one tenant in a single all-or-nothing call.
+     */
+    public void applyMovements(String cid, List<Map<String, Object>> lines) {
+        execute("applyMovements", () -> restClient.post()
+                .uri(uriBuilder -> uriBuilder.path("/api/medicines/movements").queryParam("cid", cid).build())
+                .body(Map.of("lines", lines))
                 .retrieve()
-                .toBodilessEntity();
+                .toBodilessEntity());
     }
 
-    public void restoreStock(String cid, List<Map<String, Object>> medicines) {
-        restClient.post()
-                .uri(uriBuilder -> uriBuilder.path("/api/medicines/restore").queryParam("cid", cid).build())
-                .body(medicines)
-                .retrieve()
-                .toBodilessEntity();
+    private void execute(String operation, Runnable call) {
+        if (!bulkhead.tryAcquire()) {
+            record(operation, "bulkhead_full", 0);
+            throw new HospitalServiceUnavailableException("Too many concurrent calls to hospital-service");
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            bulkhead.release();
+            record(operation, "breaker_open", 0);
+            throw new HospitalServiceUnavailableException("hospital-service circuit breaker is open");
+        }
+        long start = System.nanoTime();
+        try {
+            call.run();
+            circuitBreaker.onSuccess();
+            record(operation, "success", System.nanoTime() - start);
+        } catch (HttpClientErrorException e) {
+            // A 4xx means hospital-service is healthy and rejected the request itself
+            circuitBreaker.onSuccess();
+            record(operation, "client_error", System.nanoTime() - start);
+            throw e;
+        } catch (RuntimeException | Error e) {
+            // Errors too: an unreported half-open trial would keep the breaker rejecting every call
+            circuitBreaker.onFailure();
+            record(operation, "error", System.nanoTime() - start);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private void record(String operation, String outcome, long nanos) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Timer.builder("hms.hospital.client.requests")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
     }
 }
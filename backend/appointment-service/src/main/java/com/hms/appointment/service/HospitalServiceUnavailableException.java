@@ -0,0 +1,7 @@
+package com.hms.appointment.service;
+
+public class HospitalServiceUnavailableException extends RuntimeException {
+    public HospitalServiceUnavailableException(String message) {
+        super(message);
+    }
+}
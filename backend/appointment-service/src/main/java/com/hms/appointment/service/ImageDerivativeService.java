@@ -0,0 +1,212 @@
+package com.hms.appointment.service;
+
+import com.hms.appointment.repository.AppointmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Generates a thumbnail and a medium-size JPEG for each appointment image on a bounded pool
+ * after the upload commits, so list screens can fetch kilobytes instead of the original.
+ * Derivative keys are derived from the source key, which lets deduplicated images share them;
+ * generation is best effort and the DTO's derivative URLs stay null until it succeeds. The stored
+ * URLs identify the copies; clients get presigned ones in the DTO or from the download-presign
+ * endpoint with a {@link Variant}.
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    public enum Variant {
+        THUMBNAIL(".thumb.jpg", 256),
+        MEDIUM(".medium.jpg", 1024);
+
+        private final String suffix;
+        private final int maxSize;
+
+        Variant(String suffix, int maxSize) {
+            this.suffix = suffix;
+            this.maxSize = maxSize;
+        }
+
+        public String keyFor(String sourceKey) {
+            return sourceKey + suffix;
+        }
+    }
+
+    private final StorageService storageService;
+    private final AppointmentRepository appointmentRepository;
+    private final ExecutorService executor;
+    private final TransactionTemplate transactionTemplate;
+    private final long maxPixels;
+
+    public ImageDerivativeService(StorageService storageService,
+            AppointmentRepository appointmentRepository,
+            @Qualifier("imageDerivativeExecutor") ExecutorService executor,
+            PlatformTransactionManager transactionManager,
+            @Value("${storage.derivatives.max-pixels:50000000}") long maxPixels) {
+        this.storageService = storageService;
+        this.appointmentRepository = appointmentRepository;
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxPixels = maxPixels;
+    }
+
+    /** Queues derivative generation for the image in {@code slot} once the current transaction commits. */
+    public void generateAfterCommit(Long appointmentId, int slot, String sourceUrl) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(appointmentId, slot, sourceUrl);
+                }
+            });
+        } else {
+            submit(appointmentId, slot, sourceUrl);
+        }
+    }
+
+    private void submit(Long appointmentId, int slot, String sourceUrl) {
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(appointmentId, slot, sourceUrl);
+                } catch (Exception e) {
+                    log.warn("Could not generate derivatives of {}: {}", sourceUrl, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Clients fall back to the original image
+            log.warn("Derivative queue is full, skipping {}", sourceUrl);
+        }
+    }
+
+    private void generate(Long appointmentId, int slot, String sourceUrl) throws IOException {
+        String sourceKey = storageService.resolveObjectKey(sourceUrl);
+        if (sourceKey == null) {
+            return;
+        }
+        BufferedImage source = null;
+        for (Variant variant : Variant.values()) {
+            String key = variant.keyFor(sourceKey);
+            if (storageService.exists(key)) {
+                continue;
+            }
+            // Decoded once, and only if some derivative is missing
+            if (source == null) {
+                source = read(sourceKey);
+                if (source == null) {
+                    return;
+                }
+            }
+            byte[] jpeg = encodeJpeg(scale(source, variant.maxSize));
+            storageService.putObject(key, new ByteArrayInputStream(jpeg), jpeg.length, "image/jpeg");
+        }
+        String thumbnail = storageService.urlFor(Variant.THUMBNAIL.keyFor(sourceKey));
+        String medium = storageService.urlFor(Variant.MEDIUM.keyFor(sourceKey));
+        transactionTemplate.executeWithoutResult(status -> {
+            if (slot == 1) {
+                appointmentRepository.setImage1Derivatives(appointmentId, sourceUrl, thumbnail, medium);
+            } else {
+                appointmentRepository.setImage2Derivatives(appointmentId, sourceUrl, thumbnail, medium);
+            }
+        });
+    }
+
+    // Returns null for files ImageIO cannot decode or whose dimensions exceed the pixel limit
+    private BufferedImage read(String sourceKey) throws IOException {
+        try (InputStream in = storageService.getObject(sourceKey);
+                ImageInputStream images = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(images);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(images, true, true);
+                // Checked from the header before decoding, so a tiny file cannot expand to gigabytes
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    log.warn("Skipping derivatives of {}: image exceeds {} pixels", sourceKey, maxPixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves repeatedly before the final step: a single bilinear pass over a large ratio aliases badly
+    private static BufferedImage scale(BufferedImage source, int maxSize) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double ratio = Math.min(1.0, (double) maxSize / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        BufferedImage current = source;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height);
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    // Always redraws into RGB on white, since JPEG has no alpha channel
+    private static BufferedImage draw(BufferedImage image, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.8f);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
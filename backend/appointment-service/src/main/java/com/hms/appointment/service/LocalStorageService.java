@@ -0,0 +1,318 @@
+package com.hms.appointment.service;
+
+import com.hms.appointment.dto.PresignedUrlDto;
+import com.hms.appointment.dto.UploadPartDto;
+import com.hms.common.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.UriUtils;
+
+import jakarta.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Stores objects on the local filesystem for installs without MinIO or S3. Object keys are
+ * hashed into a two-level directory layout so no directory grows unbounded, and objects are
+ * served by {@code LocalImageController} through URLs signed with an HMAC in place of
+ * presigned storage URLs.
+ */
+@Service
+@ConditionalOnProperty(name = "storage.type", havingValue = "local")
+public class LocalStorageService implements StorageService {
+
+    private static final String UPLOADS_DIR = ".uploads";
+
+    @Value("${storage.local.root:./data/images}")
+    private String rootDir;
+
+    @Value("${storage.local.base-url:http://localhost:8083}")
+    private String baseUrl;
+
+    @Value("${storage.local.signing-secret:${jwt.secret}}")
+    private String signingSecret;
+
+    @Value("${storage.presign.expiry-seconds:900}")
+    private int presignExpirySeconds;
+
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        this.root = Paths.get(rootDir).toAbsolutePath().normalize();
+        Files.createDirectories(root.resolve(UPLOADS_DIR));
+    }
+
+    @Override
+    public String uploadFile(MultipartFile file, String folder) {
+        String objectKey = newObjectKey(folder, file.getOriginalFilename());
+        try (InputStream in = file.getInputStream()) {
+            write(pathFor(objectKey), in, Long.MAX_VALUE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file locally: " + e.getMessage(), e);
+        }
+        return urlFor(objectKey);
+    }
+
+    @Override
+    public void putObject(String objectKey, InputStream data, long size, String contentType) {
+        try {
+            write(pathFor(objectKey), data, Long.MAX_VALUE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public InputStream getObject(String objectKey) {
+        try {
+            return Files.newInputStream(pathFor(objectKey));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void deleteObject(String objectKey) {
+        try {
+            Files.deleteIfExists(pathFor(objectKey));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String getType() {
+        return "local";
+    }
+
+    @Override
+    public PresignedUrlDto presignUpload(String objectKey, String contentType) {
+        return presign("PUT", objectKey);
+    }
+
+    @Override
+    public PresignedUrlDto presignDownload(String objectKey) {
+        return presign("GET", objectKey);
+    }
+
+    @Override
+    public boolean exists(String objectKey) {
+        return Files.isRegularFile(pathFor(objectKey));
+    }
+
+    // Unsigned, so only usable as the stored identifier; clients are handed presignDownload URLs
+    @Override
+    public String urlFor(String objectKey) {
+        return baseUrl + "/api/images/" + UriUtils.encodePath(objectKey, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String resolveObjectKey(String url) {
+        String prefix = baseUrl + "/api/images/";
+        return url != null && url.startsWith(prefix)
+                ? UriUtils.decode(url.substring(prefix.length()), StandardCharsets.UTF_8) : null;
+    }
+
+    @Override
+    public String createMultipartUpload(String objectKey, String contentType) {
+        String uploadId = UUID.randomUUID().toString();
+        try {
+            Files.createDirectories(uploadDir(uploadId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return uploadId;
+    }
+
+    @Override
+    public String uploadPart(String objectKey, String uploadId, int partNumber, InputStream data, long length) {
+        Path part = uploadDir(uploadId).resolve(Integer.toString(partNumber));
+        try {
+            if (write(part, data, length) != length) {
+                Files.deleteIfExists(part);
+                throw new IllegalArgumentException("Part " + partNumber + " does not match its Content-Length");
+            }
+            return etag(part);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public List<UploadPartDto> listParts(String objectKey, String uploadId) {
+        List<UploadPartDto> parts = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(uploadDir(uploadId))) {
+            for (Path part : files) {
+                if (!part.getFileName().toString().startsWith(".")) {
+                    parts.add(new UploadPartDto(Integer.parseInt(part.getFileName().toString()),
+                            etag(part), Files.size(part)));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        parts.sort(Comparator.comparingInt(UploadPartDto::getPartNumber));
+        return parts;
+    }
+
+    // Parts are appended with FileChannel.transferTo, which the OS can do without user-space copies
+    @Override
+    public void completeMultipartUpload(String objectKey, String uploadId, List<UploadPartDto> parts) {
+        Path target = pathFor(objectKey);
+        try {
+            Files.createDirectories(target.getParent());
+            Path tmp = Files.createTempFile(target.getParent(), ".part", null);
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                for (UploadPartDto part : parts) {
+                    try (FileChannel in = FileChannel.open(uploadDir(uploadId).resolve(
+                            Integer.toString(part.getPartNumber())), StandardOpenOption.READ)) {
+                        long position = 0;
+                        long size = in.size();
+                        while (position < size) {
+                            position += in.transferTo(position, size - position, out);
+                        }
+                    }
+                }
+                out.force(true);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        abortMultipartUpload(objectKey, uploadId);
+    }
+
+    @Override
+    public void abortMultipartUpload(String objectKey, String uploadId) {
+        Path dir = uploadDir(uploadId);
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Resolves an object key to its file, e.g. {@code ab/cd/abcd...} under the storage root. */
+    public Path pathFor(String objectKey) {
+        if (objectKey == null || objectKey.isEmpty() || objectKey.contains("..")) {
+            throw new IllegalArgumentException("Invalid object key");
+        }
+        String hash = sha256Hex(objectKey);
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    /** Stores the request body of a presigned PUT; false, and nothing stored, when it exceeds {@code maxBytes}. */
+    public boolean store(String objectKey, InputStream data, long maxBytes) {
+        try {
+            return write(pathFor(objectKey), data, maxBytes) >= 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean verifySignature(String method, String objectKey, long expires, String signature) {
+        if (signature == null || Instant.now().getEpochSecond() > expires) {
+            return false;
+        }
+        byte[] expected = sign(method, objectKey, expires).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // Objects are written once under a fresh key, so size and mtime identify the content
+    public String etag(Path file) throws IOException {
+        return "\"" + Long.toHexString(Files.size(file)) + "-"
+                + Long.toHexString(Files.getLastModifiedTime(file).toMillis()) + "\"";
+    }
+
+    private PresignedUrlDto presign(String method, String objectKey) {
+        pathFor(objectKey);
+        long expires = Instant.now().getEpochSecond() + presignExpirySeconds;
+        String url = urlFor(objectKey) + "?expires=" + expires + "&signature=" + sign(method, objectKey, expires);
+        return new PresignedUrlDto(objectKey, method, url, Instant.ofEpochSecond(expires));
+    }
+
+    private String sign(String method, String objectKey, long expires) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(signingSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] digest = mac.doFinal((method + "\n" + objectKey + "\n" + expires).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Streams into a temp file through a channel, then renames it into place so readers never see
+     * partial files. Returns the bytes written, or -1 without storing anything once more than
+     * {@code maxBytes} arrive.
+     */
+    private long write(Path target, InputStream data, long maxBytes) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), ".part", null);
+        long written = 0;
+        try (ReadableByteChannel in = Channels.newChannel(data);
+             FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            long n;
+            while ((n = out.transferFrom(in, written, 1024 * 1024)) > 0) {
+                written += n;
+                if (written > maxBytes) {
+                    out.close();
+                    Files.deleteIfExists(tmp);
+                    return -1;
+                }
+            }
+            out.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return written;
+    }
+
+    private Path uploadDir(String uploadId) {
+        UUID.fromString(uploadId);
+        return root.resolve(UPLOADS_DIR).resolve(uploadId);
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,22 +1,42 @@
 package com.hms.appointment.service;
 
+import com.hms.appointment.dto.PresignedUrlDto;
+import com.hms.appointment.dto.UploadPartDto;
+import io.minio.GetObjectArgs;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
 import io.minio.BucketExistsArgs;
+import io.minio.GetPresignedObjectUrlArgs;
 import io.minio.MakeBucketArgs;
+import io.minio.StatObjectArgs;
+import io.minio.errors.ErrorResponseException;
+import io.minio.http.Method;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
 
 import jakarta.annotation.PostConstruct;
-import java.util.UUID;
+import jakarta.annotation.PreDestroy;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @ConditionalOnProperty(name = "storage.type", havingValue = "minio", matchIfMissing = true)
 public class MinioStorageService implements StorageService {
 
     private MinioClient minioClient;
+    // MinIO's Java client keeps its multipart calls internal, so those go through the S3 API
+    private S3Client s3Client;
+    private S3MultipartOperations multipart;
 
     @Value("${minio.endpoint:http://localhost:9000}")
     private String endpoint;
@@ -30,12 +50,23 @@ public class MinioStorageService implements StorageService {
     @Value("${minio.bucket:hms-images}")
     private String bucket;
 
+    @Value("${storage.presign.expiry-seconds:900}")
+    private int presignExpirySeconds;
+
     @PostConstruct
     public void init() {
         this.minioClient = MinioClient.builder()
                 .endpoint(endpoint)
                 .credentials(accessKey, secretKey)
                 .build();
+        this.s3Client = S3Client.builder()
+                .endpointOverride(URI.create(endpoint))
+                .region(Region.US_EAST_1)
+                .forcePathStyle(true)
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(accessKey, secretKey)))
+                .build();
+        this.multipart = new S3MultipartOperations(s3Client, bucket);
 
         try {
             boolean exists = minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucket).build());
@@ -47,10 +78,52 @@ public class MinioStorageService implements StorageService {
         }
     }
 
+    @Override
+    public void putObject(String objectKey, InputStream data, long size, String contentType) {
+        try {
+            minioClient.putObject(PutObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(objectKey)
+                    .stream(data, size, -1)
+                    .contentType(contentType)
+                    .build());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to upload file to MinIO: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public InputStream getObject(String objectKey) {
+        try {
+            return minioClient.getObject(GetObjectArgs.builder().bucket(bucket).object(objectKey).build());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read file from MinIO: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void deleteObject(String objectKey) {
+        try {
+            minioClient.removeObject(RemoveObjectArgs.builder().bucket(bucket).object(objectKey).build());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to delete file from MinIO: " + e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        s3Client.close();
+    }
+
+    @Override
+    public String getType() {
+        return "minio";
+    }
+
     @Override
     public String uploadFile(MultipartFile file, String folder) {
         try {
-            String fileName = folder + "/" + UUID.randomUUID() + "_" + file.getOriginalFilename();
+            String fileName = newObjectKey(folder, file.getOriginalFilename());
             minioClient.putObject(
                     PutObjectArgs.builder()
                             .bucket(bucket)
@@ -59,9 +132,86 @@ public class MinioStorageService implements StorageService {
                             .contentType(file.getContentType())
                             .build()
             );
-            return endpoint + "/" + bucket + "/" + fileName;
+            return urlFor(fileName);
         } catch (Exception e) {
             throw new RuntimeException("Failed to upload file to MinIO: " + e.getMessage(), e);
         }
     }
+
+    @Override
+    public PresignedUrlDto presignUpload(String objectKey, String contentType) {
+        // Only the host is signed, so the client may send any Content-Type with the PUT
+        return presign(Method.PUT, objectKey);
+    }
+
+    @Override
+    public PresignedUrlDto presignDownload(String objectKey) {
+        return presign(Method.GET, objectKey);
+    }
+
+    @Override
+    public boolean exists(String objectKey) {
+        try {
+            minioClient.statObject(StatObjectArgs.builder().bucket(bucket).object(objectKey).build());
+            return true;
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return false;
+            }
+            throw new RuntimeException("Failed to check object in MinIO: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to check object in MinIO: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String urlFor(String objectKey) {
+        return endpoint + "/" + bucket + "/" + objectKey;
+    }
+
+    @Override
+    public String resolveObjectKey(String url) {
+        String prefix = endpoint + "/" + bucket + "/";
+        return url != null && url.startsWith(prefix) ? url.substring(prefix.length()) : null;
+    }
+
+    @Override
+    public String createMultipartUpload(String objectKey, String contentType) {
+        return multipart.create(objectKey, contentType);
+    }
+
+    @Override
+    public String uploadPart(String objectKey, String uploadId, int partNumber, InputStream data, long length) {
+        return multipart.uploadPart(objectKey, uploadId, partNumber, data, length);
+    }
+
+    @Override
+    public List<UploadPartDto> listParts(String objectKey, String uploadId) {
+        return multipart.listParts(objectKey, uploadId);
+    }
+
+    @Override
+    public void completeMultipartUpload(String objectKey, String uploadId, List<UploadPartDto> parts) {
+        multipart.complete(objectKey, uploadId, parts);
+    }
+
+    @Override
+    public void abortMultipartUpload(String objectKey, String uploadId) {
+        multipart.abort(objectKey, uploadId);
+    }
+
+    private PresignedUrlDto presign(Method method, String objectKey) {
+        try {
+            String url = minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                    .method(method)
+                    .bucket(bucket)
+                    .object(objectKey)
+                    .expiry(presignExpirySeconds, TimeUnit.SECONDS)
+                    .build());
+            return new PresignedUrlDto(objectKey, method.name(), url,
+                    Instant.now().plusSeconds(presignExpirySeconds));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to presign MinIO URL: " + e.getMessage(), e);
+        }
+    }
 }
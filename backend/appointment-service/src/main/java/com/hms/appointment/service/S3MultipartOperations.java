@@ -0,0 +1,91 @@
+package com.hms.appointment.service;
+
+import com.hms.appointment.dto.UploadPartDto;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.ListPartsRequest;
+import software.amazon.awssdk.services.s3.model.ListPartsResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Multipart upload calls over the S3 API, shared by the S3 and MinIO storage services
+ * (MinIO speaks the same protocol through a path-style client).
+ */
+class S3MultipartOperations {
+
+    private final S3Client s3Client;
+    private final String bucket;
+
+    S3MultipartOperations(S3Client s3Client, String bucket) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+    }
+
+    String create(String objectKey, String contentType) {
+        return s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(objectKey)
+                .contentType(contentType)
+                .build()).uploadId();
+    }
+
+    // The stream is sent as the request body as it is read; nothing is buffered to disk
+    String uploadPart(String objectKey, String uploadId, int partNumber, InputStream data, long length) {
+        return s3Client.uploadPart(UploadPartRequest.builder()
+                        .bucket(bucket)
+                        .key(objectKey)
+                        .uploadId(uploadId)
+                        .partNumber(partNumber)
+                        .contentLength(length)
+                        .build(),
+                RequestBody.fromInputStream(data, length)).eTag();
+    }
+
+    List<UploadPartDto> listParts(String objectKey, String uploadId) {
+        List<UploadPartDto> parts = new ArrayList<>();
+        Integer marker = null;
+        ListPartsResponse response;
+        do {
+            response = s3Client.listParts(ListPartsRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey)
+                    .uploadId(uploadId)
+                    .partNumberMarker(marker)
+                    .build());
+            response.parts().forEach(p -> parts.add(new UploadPartDto(p.partNumber(), p.eTag(), p.size())));
+            marker = response.nextPartNumberMarker();
+        } while (Boolean.TRUE.equals(response.isTruncated()));
+        return parts;
+    }
+
+    void complete(String objectKey, String uploadId, List<UploadPartDto> parts) {
+        List<CompletedPart> completed = parts.stream()
+                .sorted(Comparator.comparingInt(UploadPartDto::getPartNumber))
+                .map(p -> CompletedPart.builder().partNumber(p.getPartNumber()).eTag(p.getEtag()).build())
+                .toList();
+        s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(objectKey)
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(completed).build())
+                .build());
+    }
+
+    void abort(String objectKey, String uploadId) {
+        s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(objectKey)
+                .uploadId(uploadId)
+                .build());
+    }
+}
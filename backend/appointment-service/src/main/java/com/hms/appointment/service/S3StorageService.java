@@ -1,5 +1,7 @@
 package com.hms.appointment.service;
 
+import com.hms.appointment.dto.PresignedUrlDto;
+import com.hms.appointment.dto.UploadPartDto;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
@@ -9,16 +11,31 @@ import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
 import jakarta.annotation.PostConstruct;
-import java.util.UUID;
+import jakarta.annotation.PreDestroy;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
 
 @Service
 @ConditionalOnProperty(name = "storage.type", havingValue = "s3")
 public class S3StorageService implements StorageService {
 
     private S3Client s3Client;
+    private S3Presigner presigner;
+    private S3MultipartOperations multipart;
 
     @Value("${aws.s3.bucket:hms-images}")
     private String bucket;
@@ -32,19 +49,39 @@ public class S3StorageService implements StorageService {
     @Value("${aws.s3.secretKey:}")
     private String secretKey;
 
+    @Value("${storage.presign.expiry-seconds:900}")
+    private int presignExpirySeconds;
+
     @PostConstruct
     public void init() {
+        StaticCredentialsProvider credentials = StaticCredentialsProvider.create(
+                AwsBasicCredentials.create(accessKey, secretKey));
         this.s3Client = S3Client.builder()
                 .region(Region.of(region))
-                .credentialsProvider(StaticCredentialsProvider.create(
-                        AwsBasicCredentials.create(accessKey, secretKey)))
+                .credentialsProvider(credentials)
+                .build();
+        this.presigner = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
                 .build();
+        this.multipart = new S3MultipartOperations(s3Client, bucket);
+    }
+
+    @PreDestroy
+    public void close() {
+        presigner.close();
+        s3Client.close();
+    }
+
+    @Override
+    public String getType() {
+        return "s3";
     }
 
     @Override
     public String uploadFile(MultipartFile file, String folder) {
         try {
-            String key = folder + "/" + UUID.randomUUID() + "_" + file.getOriginalFilename();
+            String key = newObjectKey(folder, file.getOriginalFilename());
             s3Client.putObject(
                     PutObjectRequest.builder()
                             .bucket(bucket)
@@ -53,9 +90,106 @@ public class S3StorageService implements StorageService {
                             .build(),
                     RequestBody.fromInputStream(file.getInputStream(), file.getSize())
             );
-            return "https://" + bucket + ".s3." + region + ".amazonaws.com/" + key;
+            return urlFor(key);
         } catch (Exception e) {
             throw new RuntimeException("Failed to upload file to S3: " + e.getMessage(), e);
         }
     }
+
+    @Override
+    public void putObject(String objectKey, InputStream data, long size, String contentType) {
+        s3Client.putObject(PutObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(objectKey)
+                        .contentType(contentType)
+                        .build(),
+                RequestBody.fromInputStream(data, size));
+    }
+
+    @Override
+    public InputStream getObject(String objectKey) {
+        return s3Client.getObject(GetObjectRequest.builder().bucket(bucket).key(objectKey).build());
+    }
+
+    @Override
+    public void deleteObject(String objectKey) {
+        s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(objectKey).build());
+    }
+
+    @Override
+    public PresignedUrlDto presignUpload(String objectKey, String contentType) {
+        PresignedPutObjectRequest presigned = presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(Duration.ofSeconds(presignExpirySeconds))
+                .putObjectRequest(PutObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(objectKey)
+                        .contentType(contentType)
+                        .build())
+                .build());
+        return new PresignedUrlDto(objectKey, "PUT", presigned.url().toString(), presigned.expiration());
+    }
+
+    @Override
+    public PresignedUrlDto presignDownload(String objectKey) {
+        PresignedGetObjectRequest presigned = presigner.presignGetObject(GetObjectPresignRequest.builder()
+                .signatureDuration(Duration.ofSeconds(presignExpirySeconds))
+                .getObjectRequest(GetObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(objectKey)
+                        .build())
+                .build());
+        return new PresignedUrlDto(objectKey, "GET", presigned.url().toString(), presigned.expiration());
+    }
+
+    @Override
+    public boolean exists(String objectKey) {
+        try {
+            s3Client.headObject(HeadObjectRequest.builder().bucket(bucket).key(objectKey).build());
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        } catch (S3Exception e) {
+            // HEAD responses carry no body, so a missing key can surface as a bare 404
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            throw new RuntimeException("Failed to check object in S3: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String urlFor(String objectKey) {
+        return "https://" + bucket + ".s3." + region + ".amazonaws.com/" + objectKey;
+    }
+
+    @Override
+    public String resolveObjectKey(String url) {
+        String prefix = urlFor("");
+        return url != null && url.startsWith(prefix) ? url.substring(prefix.length()) : null;
+    }
+
+    @Override
+    public String createMultipartUpload(String objectKey, String contentType) {
+        return multipart.create(objectKey, contentType);
+    }
+
+    @Override
+    public String uploadPart(String objectKey, String uploadId, int partNumber, InputStream data, long length) {
+        return multipart.uploadPart(objectKey, uploadId, partNumber, data, length);
+    }
+
+    @Override
+    public List<UploadPartDto> listParts(String objectKey, String uploadId) {
+        return multipart.listParts(objectKey, uploadId);
+    }
+
+    @Override
+    public void completeMultipartUpload(String objectKey, String uploadId, List<UploadPartDto> parts) {
+        multipart.complete(objectKey, uploadId, parts);
+    }
+
+    @Override
+    public void abortMultipartUpload(String objectKey, String uploadId) {
+        multipart.abort(objectKey, uploadId);
+    }
 }
@@ -0,0 +1,149 @@
+package com.hms.appointment.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.appointment.entity.OutboxStatus;
+import com.hms.appointment.entity.StockMovementType;
+import com.hms.appointment.entity.StockOutboxEntry;
+import com.hms.appointment.repository.StockOutboxRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Component
+public class StockOutbox {
+
+    private static final TypeReference<List<Map<String, Object>>> PAYLOAD_TYPE = new TypeReference<>() {
+    };
+
+    private final StockOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public StockOutbox(StockOutboxRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Queues a movement in the caller's transaction, so it commits or rolls back with the
+     * appointment. A restoration first cancels the appointment's deductions that were never
+     * applied (still pending, or rejected) and only restores what was actually taken. A deduction
+     * a dispatcher is delivering right now (IN_FLIGHT) may already be applied, so it counts as
+     * taken; the restoration is queued after it and delivered once it has been.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String cid, Long appointmentId, StockMovementType type, List<Map<String, Object>> medicines) {
+        if (type == StockMovementType.RESTORE && appointmentId != null) {
+            medicines = cancelUnappliedDeductions(appointmentId, medicines);
+        }
+        if (medicines.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.save(StockOutboxEntry.builder()
+                .cid(cid)
+                .appointmentId(appointmentId)
+                .type(type)
+                .payload(writePayload(medicines))
+                .idempotencyKey(UUID.randomUUID().toString())
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+    }
+
+    /**
+     * Offsets the restoration against unapplied deductions, oldest first, and returns what is
+     * left to restore. A deduction that is only partly offset is cancelled and its remainder
+     * re-queued with the same status, so a rejected deduction stays visible as FAILED.
+     */
+    private List<Map<String, Object>> cancelUnappliedDeductions(Long appointmentId,
+            List<Map<String, Object>> medicines) {
+        List<StockOutboxEntry> unapplied = outboxRepository.lockUnappliedDeductions(appointmentId);
+        if (unapplied.isEmpty()) {
+            return medicines;
+        }
+        Map<String, Integer> toRestore = quantities(medicines);
+        for (StockOutboxEntry deduction : unapplied) {
+            List<Map<String, Object>> remainder = new ArrayList<>();
+            boolean offset = false;
+            for (Map.Entry<String, Integer> line : quantities(readPayload(deduction)).entrySet()) {
+                int taken = Math.min(line.getValue(), toRestore.getOrDefault(line.getKey(), 0));
+                if (taken > 0) {
+                    offset = true;
+                    toRestore.merge(line.getKey(), -taken, Integer::sum);
+                }
+                if (line.getValue() > taken) {
+                    remainder.add(line(line.getKey(), line.getValue() - taken));
+                }
+            }
+            if (!offset) {
+                continue;
+            }
+            OutboxStatus status = deduction.getStatus();
+            deduction.setStatus(OutboxStatus.CANCELLED);
+            if (!remainder.isEmpty()) {
+                outboxRepository.save(StockOutboxEntry.builder()
+                        .cid(deduction.getCid())
+                        .appointmentId(appointmentId)
+                        .type(StockMovementType.DEDUCT)
+                        .payload(writePayload(remainder))
+                        .idempotencyKey(UUID.randomUUID().toString())
+                        .status(status)
+                        .attempts(deduction.getAttempts())
+                        .lastError(deduction.getLastError())
+                        .nextAttemptAt(deduction.getNextAttemptAt())
+                        .createdAt(LocalDateTime.now())
+                        .build());
+            }
+        }
+        List<Map<String, Object>> remaining = new ArrayList<>();
+        toRestore.forEach((name, quantity) -> {
+            if (quantity > 0) {
+                remaining.add(line(name, quantity));
+            }
+        });
+        return remaining;
+    }
+
+    public List<Map<String, Object>> readPayload(StockOutboxEntry entry) {
+        try {
+            return objectMapper.readValue(entry.getPayload(), PAYLOAD_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt stock outbox payload for entry " + entry.getId(), e);
+        }
+    }
+
+    // Quantity per medicine name, in first-seen order
+    private static Map<String, Integer> quantities(List<Map<String, Object>> medicines) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (Map<String, Object> medicine : medicines) {
+            quantities.merge((String) medicine.get("medicineName"),
+                    ((Number) medicine.get("quantity")).intValue(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private static Map<String, Object> line(String medicineName, int quantity) {
+        Map<String, Object> line = new HashMap<>();
+        line.put("medicineName", medicineName);
+        line.put("quantity", quantity);
+        return line;
+    }
+
+    private String writePayload(List<Map<String, Object>> medicines) {
+        try {
+            return objectMapper.writeValueAsString(medicines);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize stock movement", e);
+        }
+    }
+}
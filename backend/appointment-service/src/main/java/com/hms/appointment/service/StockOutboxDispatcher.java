@@ -0,0 +1,229 @@
+package com.hms.appointment.service;
+
+import com.hms.appointment.entity.OutboxStatus;
+import com.hms.appointment.entity.StockMovementType;
+import com.hms.appointment.entity.StockOutboxEntry;
+import com.hms.appointment.repository.StockOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers pending stock movements to hospital-service in id order, coalescing each tenant's
+ * due entries into one batch call. Each entry carries an idempotency key, so a movement that
+ * was applied but not acknowledged is not applied twice when it is retried. A tenant's entries
+ * are never delivered ahead of an earlier pending one, whether it is waiting for a retry or
+ * being sent by another instance.
+ *
+ * <p>A batch is claimed (marked IN_FLIGHT) in one short transaction, sent with no transaction
+ * open and recorded in a second one, so appointment changes that touch the same outbox rows
+ * never wait on a hospital-service call. A claim that is not recorded within
+ * {@code outbox.dispatch.claim-seconds} is handed to a later run.
+ */
+@Component
+public class StockOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(StockOutboxDispatcher.class);
+
+    private final StockOutboxRepository outboxRepository;
+    private final StockOutbox stockOutbox;
+    private final HospitalClient hospitalClient;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${outbox.dispatch.batch-size:50}")
+    private int batchSize;
+
+    @Value("${outbox.dispatch.max-attempts:10}")
+    private int maxAttempts;
+
+    // Longer than a batch can take: one call per entry when isolating a rejection, each up to the read timeout
+    @Value("${outbox.dispatch.claim-seconds:600}")
+    private long claimSeconds;
+
+    public StockOutboxDispatcher(StockOutboxRepository outboxRepository,
+            StockOutbox stockOutbox,
+            HospitalClient hospitalClient,
+            TransactionTemplate transactionTemplate) {
+        this.outboxRepository = outboxRepository;
+        this.stockOutbox = stockOutbox;
+        this.hospitalClient = hospitalClient;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.dispatch.interval-ms:2000}")
+    public void dispatch() {
+        transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.releaseExpiredClaims(LocalDateTime.now()));
+        int claimed;
+        do {
+            claimed = dispatchBatch();
+        } while (claimed == batchSize);
+    }
+
+    private int dispatchBatch() {
+        String token = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        List<List<StockOutboxEntry>> groups = transactionTemplate.execute(status -> claim(token, now));
+        if (groups == null || groups.isEmpty()) {
+            return 0;
+        }
+        // No transaction is open from here on: the claimed rows are detached and nothing stays locked
+        try {
+            for (List<StockOutboxEntry> entries : groups) {
+                deliver(entries.get(0).getCid(), entries, now);
+            }
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> record(token, groups));
+        }
+        return groups.stream().mapToInt(List::size).sum();
+    }
+
+    // One group per tenant, preserving the id order of its entries
+    private List<List<StockOutboxEntry>> claim(String token, LocalDateTime now) {
+        List<StockOutboxEntry> batch = outboxRepository.findDue(now, PageRequest.of(0, batchSize));
+        Map<String, List<StockOutboxEntry>> byCid = batch.stream()
+                .collect(Collectors.groupingBy(StockOutboxEntry::getCid, LinkedHashMap::new, Collectors.toList()));
+
+        LocalDateTime claimedUntil = now.plusSeconds(claimSeconds);
+        List<List<StockOutboxEntry>> groups = new ArrayList<>();
+        for (Map.Entry<String, List<StockOutboxEntry>> group : byCid.entrySet()) {
+            List<StockOutboxEntry> entries = group.getValue();
+            // An earlier entry skipped as locked is being claimed by another instance; wait for it
+            if (outboxRepository.existsByCidAndStatusInAndIdLessThan(group.getKey(),
+                    List.of(OutboxStatus.PENDING, OutboxStatus.IN_FLIGHT), entries.get(0).getId())) {
+                continue;
+            }
+            for (StockOutboxEntry entry : entries) {
+                entry.setStatus(OutboxStatus.IN_FLIGHT);
+                entry.setClaimToken(token);
+                entry.setClaimedUntil(claimedUntil);
+            }
+            groups.add(entries);
+        }
+        return groups;
+    }
+
+    /**
+     * Copies the outcome of each delivered entry onto its row. Rows whose claim lapsed and was
+     * handed on are no longer ours and are left alone; entries never sent (held back behind a
+     * retry) go back to pending.
+     */
+    private void record(String token, List<List<StockOutboxEntry>> groups) {
+        Map<Long, StockOutboxEntry> outcomes = new HashMap<>();
+        groups.forEach(entries -> entries.forEach(entry -> outcomes.put(entry.getId(), entry)));
+        for (StockOutboxEntry row : outboxRepository.lockClaimed(token)) {
+            StockOutboxEntry outcome = outcomes.get(row.getId());
+            if (outcome != null) {
+                row.setStatus(outcome.getStatus() == OutboxStatus.IN_FLIGHT ? OutboxStatus.PENDING : outcome.getStatus());
+                row.setAttempts(outcome.getAttempts());
+                row.setNextAttemptAt(outcome.getNextAttemptAt());
+                row.setSentAt(outcome.getSentAt());
+                row.setLastError(outcome.getLastError());
+            } else {
+                row.setStatus(OutboxStatus.PENDING);
+            }
+            row.setClaimToken(null);
+            row.setClaimedUntil(null);
+        }
+    }
+
+    private int deliver(String cid, List<StockOutboxEntry> entries, LocalDateTime now) {
+        try {
+            hospitalClient.applyMovements(cid, toLines(entries));
+            entries.forEach(this::markSent);
+            return entries.size();
+        } catch (HttpClientErrorException e) {
+            if (!isRejection(e)) {
+                // Auth failures, throttling and the like say nothing about the movement; retry it
+                entries.forEach(entry -> scheduleRetry(entry, now, e));
+                return 0;
+            }
+            if (entries.size() > 1) {
+                // The call is all-or-nothing; resend one by one to isolate the rejected movement
+                int delivered = 0;
+                for (StockOutboxEntry entry : entries) {
+                    int sent = deliver(cid, List.of(entry), now);
+                    if (sent == 0 && entry.getStatus() == OutboxStatus.PENDING) {
+                        // Transient failure: the rest go back to pending, and findDue holds them back until it is retried
+                        break;
+                    }
+                    delivered += sent;
+                }
+                return delivered;
+            }
+            // Rejected by hospital-service (unknown medicine, insufficient stock): retrying will not help
+            StockOutboxEntry entry = entries.get(0);
+            entry.setAttempts(entry.getAttempts() + 1);
+            entry.setStatus(OutboxStatus.FAILED);
+            entry.setLastError(truncate(e.getMessage()));
+            log.warn("Stock movement {} for {} rejected: {}", entry.getIdempotencyKey(), cid, e.getMessage());
+            return 0;
+        } catch (RuntimeException e) {
+            entries.forEach(entry -> scheduleRetry(entry, now, e));
+            return 0;
+        }
+    }
+
+    // Final answers about the movement itself: malformed, insufficient stock, unknown medicine
+    private static boolean isRejection(HttpClientErrorException e) {
+        int status = e.getStatusCode().value();
+        return status == 400 || status == 409 || status == 422;
+    }
+
+    private List<Map<String, Object>> toLines(List<StockOutboxEntry> entries) {
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (StockOutboxEntry entry : entries) {
+            int sign = entry.getType() == StockMovementType.DEDUCT ? -1 : 1;
+            for (Map<String, Object> medicine : stockOutbox.readPayload(entry)) {
+                lines.add(Map.of(
+                        "reference", entry.getIdempotencyKey(),
+                        "medicineName", medicine.get("medicineName"),
+                        "delta", sign * ((Number) medicine.get("quantity")).intValue()));
+            }
+        }
+        return lines;
+    }
+
+    private void markSent(StockOutboxEntry entry) {
+        entry.setStatus(OutboxStatus.SENT);
+        entry.setSentAt(LocalDateTime.now());
+        entry.setLastError(null);
+    }
+
+    private void scheduleRetry(StockOutboxEntry entry, LocalDateTime now, RuntimeException e) {
+        int attempts = entry.getAttempts() + 1;
+        entry.setAttempts(attempts);
+        entry.setLastError(truncate(e.getMessage()));
+        entry.setStatus(OutboxStatus.PENDING);
+        if (attempts >= maxAttempts) {
+            entry.setStatus(OutboxStatus.FAILED);
+            log.error("Giving up on stock movement {} for {} after {} attempts", entry.getIdempotencyKey(),
+                    entry.getCid(), attempts, e);
+            return;
+        }
+        long backoffSeconds = Math.min(1L << Math.min(attempts, 8), 300);
+        entry.setNextAttemptAt(now.plus(Duration.ofSeconds(backoffSeconds)));
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -1,7 +1,59 @@
 package com.hms.appointment.service;
 
+import com.hms.appointment.dto.PresignedUrlDto;
+import com.hms.appointment.dto.UploadPartDto;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+
 public interface StorageService {
     String uploadFile(MultipartFile file, String folder);
+
+    /** Writes {@code size} bytes from {@code data} under an explicit key, replacing any existing object. */
+    void putObject(String objectKey, InputStream data, long size, String contentType);
+
+    void deleteObject(String objectKey);
+
+    /** Opens the object's bytes for reading; the caller closes the stream. */
+    InputStream getObject(String objectKey);
+
+    // Backend name used to tag storage metrics, e.g. "minio" or "s3"
+    String getType();
+
+    /** URL the client can PUT the object's bytes to directly, without going through this service. */
+    PresignedUrlDto presignUpload(String objectKey, String contentType);
+
+    /** Time-limited URL the client can GET the object from. */
+    PresignedUrlDto presignDownload(String objectKey);
+
+    boolean exists(String objectKey);
+
+    /**
+     * URL stored on the appointment for an object key, in the same form {@link #uploadFile} returns.
+     * It identifies the object; clients are given {@link #presignDownload} URLs to fetch it.
+     */
+    String urlFor(String objectKey);
+
+    /** Inverse of {@link #urlFor}; null when the URL does not point into this storage. */
+    String resolveObjectKey(String url);
+
+    // Multipart uploads, used for resumable chunked uploads of large files
+
+    String createMultipartUpload(String objectKey, String contentType);
+
+    /** Stores one part from {@code data}, which must supply exactly {@code length} bytes; returns its ETag. */
+    String uploadPart(String objectKey, String uploadId, int partNumber, InputStream data, long length);
+
+    List<UploadPartDto> listParts(String objectKey, String uploadId);
+
+    void completeMultipartUpload(String objectKey, String uploadId, List<UploadPartDto> parts);
+
+    void abortMultipartUpload(String objectKey, String uploadId);
+
+    default String newObjectKey(String folder, String fileName) {
+        String safeName = fileName == null ? "file" : fileName.replaceAll("[^A-Za-z0-9._-]", "_");
+        return folder + "/" + UUID.randomUUID() + "_" + safeName;
+    }
 }
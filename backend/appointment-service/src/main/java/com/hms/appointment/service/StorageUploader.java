@@ -0,0 +1,103 @@
+package com.hms.appointment.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs {@link ContentAddressedStore} uploads on the bounded storage executor with a per-upload
+ * timeout, recording latency per backend as {@code hms.storage.upload}.
+ */
+@Component
+public class StorageUploader {
+
+    private final StorageService storageService;
+    private final ContentAddressedStore contentStore;
+    private final ExecutorService executor;
+    private final long timeoutMs;
+    private final MeterRegistry meterRegistry;
+
+    public StorageUploader(StorageService storageService,
+            ContentAddressedStore contentStore,
+            @Qualifier("storageUploadExecutor") ExecutorService executor,
+            @Value("${storage.upload.timeout-ms:30000}") long timeoutMs,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.storageService = storageService;
+        this.contentStore = contentStore;
+        this.executor = executor;
+        this.timeoutMs = timeoutMs;
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    /**
+     * Uploads on the storage executor. On timeout the upload thread is interrupted; an upload that
+     * still finishes afterwards gives its reference back, so nothing is left stored for nobody.
+     */
+    public CompletableFuture<String> upload(String cid, MultipartFile file) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    String url = timed(cid, file);
+                    if (!result.complete(url)) {
+                        contentStore.releaseAfterCommit(url);
+                    }
+                } catch (RuntimeException | Error e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Too many uploads in progress, please retry", e));
+        }
+        return result.orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .whenComplete((url, e) -> {
+                    if (e != null) {
+                        task.cancel(true);
+                    }
+                })
+                .exceptionallyCompose(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    return CompletableFuture.failedFuture(cause instanceof TimeoutException
+                            ? new IllegalStateException("Upload of " + file.getOriginalFilename() + " timed out", cause)
+                            : cause);
+                });
+    }
+
+    private String timed(String cid, MultipartFile file) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            String url = contentStore.store(cid, file);
+            outcome = "success";
+            return url;
+        } finally {
+            record(outcome, System.nanoTime() - start);
+        }
+    }
+
+    private void record(String outcome, long nanos) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Timer.builder("hms.storage.upload")
+                .tag("backend", storageService.getType())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
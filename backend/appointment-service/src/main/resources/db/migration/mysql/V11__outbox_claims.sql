@@ -0,0 +1,5 @@
+-- A dispatcher claims due entries (status IN_FLIGHT) in a short transaction and calls
+-- hospital-service with no transaction open; the claim lapses at claimed_until if it never reports back
+ALTER TABLE stock_outbox ADD COLUMN claim_token VARCHAR(36);
+ALTER TABLE stock_outbox ADD COLUMN claimed_until DATETIME(6);
+CREATE INDEX idx_stock_outbox_claim_token ON stock_outbox (claim_token);
@@ -0,0 +1,7 @@
+-- Abandoned sessions expire after a stretch without uploads, not a fixed time after they started
+ALTER TABLE upload_sessions ADD COLUMN last_activity_at DATETIME(6);
+UPDATE upload_sessions SET last_activity_at = created_at;
+ALTER TABLE upload_sessions MODIFY last_activity_at DATETIME(6) NOT NULL;
+
+DROP INDEX idx_upload_sessions_status_created_at ON upload_sessions;
+CREATE INDEX idx_upload_sessions_status_last_activity_at ON upload_sessions (status, last_activity_at);
@@ -0,0 +1,10 @@
+-- Running all-time appointment count per tenant, so stats read one row per tenant instead of
+-- summing every day the tenant has bookings on
+CREATE TABLE appointment_tenant_totals (
+    cid VARCHAR(255) NOT NULL,
+    total BIGINT NOT NULL,
+    PRIMARY KEY (cid)
+) ENGINE = InnoDB;
+
+INSERT INTO appointment_tenant_totals (cid, total)
+SELECT cid, SUM(booked + completed + cancelled) FROM appointment_daily_counts GROUP BY cid;
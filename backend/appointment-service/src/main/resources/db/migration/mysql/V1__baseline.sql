@@ -0,0 +1,62 @@
+-- Tables as previously created by ddl-auto=update; no-op on databases that already have them
+CREATE TABLE IF NOT EXISTS appointments (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    cid VARCHAR(255) NOT NULL,
+    doctor_id BIGINT NOT NULL,
+    patient_id BIGINT NOT NULL,
+    date_time DATETIME(6),
+    status VARCHAR(32) NOT NULL,
+    notes TEXT,
+    image_url1 VARCHAR(255),
+    image_url2 VARCHAR(255),
+    doctor_name VARCHAR(255),
+    patient_name VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS prescriptions (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    appointment_id BIGINT,
+    diagnosis TEXT,
+    advice TEXT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_prescriptions_appointment_id UNIQUE (appointment_id),
+    CONSTRAINT fk_prescriptions_appointment FOREIGN KEY (appointment_id) REFERENCES appointments (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS prescribed_medicines (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    prescription_id BIGINT,
+    medicine_name VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL,
+    dosage VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_prescribed_medicines_prescription FOREIGN KEY (prescription_id) REFERENCES prescriptions (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS stock_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    cid VARCHAR(255) NOT NULL,
+    type VARCHAR(32) NOT NULL,
+    payload TEXT NOT NULL,
+    idempotency_key VARCHAR(36) NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    attempts INTEGER NOT NULL,
+    next_attempt_at DATETIME(6) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    sent_at DATETIME(6),
+    last_error VARCHAR(1000),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_stock_outbox_idempotency_key UNIQUE (idempotency_key)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS appointment_daily_counts (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    cid VARCHAR(255) NOT NULL,
+    appointment_date DATE NOT NULL,
+    booked BIGINT NOT NULL,
+    completed BIGINT NOT NULL,
+    cancelled BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_appointment_daily_counts_cid_date UNIQUE (cid, appointment_date)
+) ENGINE = InnoDB;
@@ -0,0 +1,15 @@
+-- Tenant listings, today's count and the page / keyset scroll queries, which filter on cid
+-- and order by (date_time desc, id desc)
+CREATE INDEX idx_appointments_cid_date_time ON appointments (cid, date_time, id);
+
+-- Status-filtered pages
+CREATE INDEX idx_appointments_cid_status_date_time ON appointments (cid, status, date_time);
+
+-- AppointmentRepository.findByCidAndDoctorId
+CREATE INDEX idx_appointments_cid_doctor_date_time ON appointments (cid, doctor_id, date_time);
+
+-- StockOutboxRepository.findDue
+CREATE INDEX idx_stock_outbox_status_next_attempt ON stock_outbox (status, next_attempt_at, id);
+
+-- All-tenant stats for today
+CREATE INDEX idx_appointment_daily_counts_date ON appointment_daily_counts (appointment_date);
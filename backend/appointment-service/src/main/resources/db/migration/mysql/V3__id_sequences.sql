@@ -0,0 +1,17 @@
+-- Pooled id generators (allocationSize = 50). MySQL has no sequences, so Hibernate keeps each
+-- one in a single-row table; next_val starts past the ids already handed out by AUTO_INCREMENT
+
+CREATE TABLE appointments_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO appointments_seq (next_val) SELECT COALESCE(MAX(id), 0) + 100 FROM appointments;
+
+CREATE TABLE prescriptions_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO prescriptions_seq (next_val) SELECT COALESCE(MAX(id), 0) + 100 FROM prescriptions;
+
+CREATE TABLE prescribed_medicines_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO prescribed_medicines_seq (next_val) SELECT COALESCE(MAX(id), 0) + 100 FROM prescribed_medicines;
+
+CREATE TABLE stock_outbox_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO stock_outbox_seq (next_val) SELECT COALESCE(MAX(id), 0) + 100 FROM stock_outbox;
+
+CREATE TABLE appointment_daily_counts_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO appointment_daily_counts_seq (next_val) SELECT COALESCE(MAX(id), 0) + 100 FROM appointment_daily_counts;
@@ -0,0 +1,17 @@
+-- Resumable chunked image uploads; parts live in the storage backend's multipart upload
+CREATE TABLE upload_sessions (
+    id VARCHAR(36) NOT NULL,
+    cid VARCHAR(255) NOT NULL,
+    appointment_id BIGINT NOT NULL,
+    object_key VARCHAR(1024) NOT NULL,
+    storage_upload_id VARCHAR(1024) NOT NULL,
+    content_type VARCHAR(255),
+    total_size BIGINT,
+    part_size BIGINT NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Cleanup of abandoned sessions
+CREATE INDEX idx_upload_sessions_status_created_at ON upload_sessions (status, created_at);
@@ -0,0 +1,7 @@
+-- Ties each stock movement to its appointment, so a restoration can cancel deductions for
+-- the same appointment that were never applied
+ALTER TABLE stock_outbox ADD COLUMN appointment_id BIGINT;
+CREATE INDEX idx_stock_outbox_appointment ON stock_outbox (appointment_id, type, status);
+
+-- StockOutboxRepository.findDue / existsByCidAndStatusInAndIdLessThan: per-tenant delivery order
+CREATE INDEX idx_stock_outbox_cid_status_id ON stock_outbox (cid, status, id);
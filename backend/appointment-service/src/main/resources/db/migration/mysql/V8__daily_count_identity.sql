@@ -0,0 +1,4 @@
+-- Counter rows are created by an INSERT ... ON DUPLICATE KEY UPDATE upsert that takes its id
+-- from AUTO_INCREMENT; InnoDB already moved the counter past the ids the pooled generator
+-- handed out, so only the generator table goes
+DROP TABLE IF EXISTS appointment_daily_counts_seq;
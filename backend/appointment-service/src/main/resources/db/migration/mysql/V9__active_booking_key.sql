@@ -0,0 +1,14 @@
+-- One active booking per doctor and start time, enforced by the database. active_date_time is
+-- date_time while the appointment is not cancelled and NULL afterwards, so cancelled rows never
+-- collide (MySQL has no partial indexes)
+ALTER TABLE appointments ADD COLUMN active_date_time DATETIME(6);
+
+-- Existing double bookings keep their oldest appointment keyed; the others stay NULL
+UPDATE appointments a
+JOIN (SELECT MIN(id) AS id
+      FROM appointments
+      WHERE status <> 'CANCELLED' AND date_time IS NOT NULL
+      GROUP BY cid, doctor_id, date_time) oldest ON oldest.id = a.id
+SET a.active_date_time = a.date_time;
+
+CREATE UNIQUE INDEX uk_appointments_active_slot ON appointments (cid, doctor_id, active_date_time);
@@ -0,0 +1,5 @@
+-- Content-addressed objects are kept per tenant under cas/<cid>/<sha256>, so identical files of
+-- two tenants no longer share one object. Rows stored before keep cid NULL and their cas/<sha256> key
+ALTER TABLE stored_objects ADD COLUMN cid VARCHAR(255);
+ALTER TABLE stored_objects DROP CONSTRAINT uk_stored_objects_content_hash;
+CREATE UNIQUE INDEX uk_stored_objects_cid_content_hash ON stored_objects (cid, content_hash);
@@ -0,0 +1,18 @@
+-- Tenant listings, today's count and the page / keyset scroll queries, which filter on cid
+-- and order by (date_time desc, id desc)
+CREATE INDEX IF NOT EXISTS idx_appointments_cid_date_time ON appointments (cid, date_time, id);
+
+-- Status-filtered pages
+CREATE INDEX IF NOT EXISTS idx_appointments_cid_status_date_time ON appointments (cid, status, date_time);
+
+-- AppointmentRepository.findByCidAndDoctorId
+CREATE INDEX IF NOT EXISTS idx_appointments_cid_doctor_date_time ON appointments (cid, doctor_id, date_time);
+
+-- StockOutboxRepository.findDue
+CREATE INDEX IF NOT EXISTS idx_stock_outbox_status_next_attempt ON stock_outbox (status, next_attempt_at, id);
+
+-- All-tenant stats for today
+CREATE INDEX IF NOT EXISTS idx_appointment_daily_counts_date ON appointment_daily_counts (appointment_date);
+
+-- PostgreSQL does not index foreign key columns; the fetch joins walk these
+CREATE INDEX IF NOT EXISTS idx_prescribed_medicines_prescription_id ON prescribed_medicines (prescription_id);
@@ -0,0 +1,17 @@
+-- Pooled id generators (allocationSize = 50); each sequence starts past the ids already
+-- handed out by the identity columns
+
+CREATE SEQUENCE IF NOT EXISTS appointments_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('appointments_seq', (SELECT COALESCE(MAX(id), 0) + 100 FROM appointments));
+
+CREATE SEQUENCE IF NOT EXISTS prescriptions_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('prescriptions_seq', (SELECT COALESCE(MAX(id), 0) + 100 FROM prescriptions));
+
+CREATE SEQUENCE IF NOT EXISTS prescribed_medicines_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('prescribed_medicines_seq', (SELECT COALESCE(MAX(id), 0) + 100 FROM prescribed_medicines));
+
+CREATE SEQUENCE IF NOT EXISTS stock_outbox_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('stock_outbox_seq', (SELECT COALESCE(MAX(id), 0) + 100 FROM stock_outbox));
+
+CREATE SEQUENCE IF NOT EXISTS appointment_daily_counts_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('appointment_daily_counts_seq', (SELECT COALESCE(MAX(id), 0) + 100 FROM appointment_daily_counts));
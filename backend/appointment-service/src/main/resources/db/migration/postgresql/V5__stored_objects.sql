@@ -0,0 +1,14 @@
+-- Content-addressed image objects with reference counts
+CREATE TABLE stored_objects (
+    id BIGINT NOT NULL,
+    content_hash VARCHAR(64) NOT NULL,
+    object_key VARCHAR(1024) NOT NULL,
+    size BIGINT NOT NULL,
+    content_type VARCHAR(255),
+    ref_count BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_stored_objects_content_hash UNIQUE (content_hash)
+);
+
+CREATE SEQUENCE IF NOT EXISTS stored_objects_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,5 @@
+-- Thumbnail and medium-size copies of appointment images, generated after upload
+ALTER TABLE appointments ADD COLUMN thumbnail_url1 VARCHAR(1024);
+ALTER TABLE appointments ADD COLUMN medium_url1 VARCHAR(1024);
+ALTER TABLE appointments ADD COLUMN thumbnail_url2 VARCHAR(1024);
+ALTER TABLE appointments ADD COLUMN medium_url2 VARCHAR(1024);
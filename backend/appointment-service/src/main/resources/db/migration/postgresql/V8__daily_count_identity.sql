@@ -0,0 +1,5 @@
+-- Counter rows are created by an INSERT ... ON CONFLICT upsert that takes its id from the
+-- identity column; move the identity past the ids the pooled generator handed out
+SELECT setval(pg_get_serial_sequence('appointment_daily_counts', 'id'),
+              (SELECT COALESCE(MAX(id), 0) + 1 FROM appointment_daily_counts), false);
+DROP SEQUENCE IF EXISTS appointment_daily_counts_seq;
@@ -0,0 +1,14 @@
+-- One active booking per doctor and start time, enforced by the database. active_date_time is
+-- date_time while the appointment is not cancelled and NULL afterwards, so cancelled rows never
+-- collide; the same column as on MySQL, which has no partial indexes
+ALTER TABLE appointments ADD COLUMN active_date_time TIMESTAMP(6);
+
+-- Existing double bookings keep their oldest appointment keyed; the others stay NULL
+UPDATE appointments a
+SET active_date_time = a.date_time
+WHERE a.id IN (SELECT MIN(id)
+               FROM appointments
+               WHERE status <> 'CANCELLED' AND date_time IS NOT NULL
+               GROUP BY cid, doctor_id, date_time);
+
+CREATE UNIQUE INDEX uk_appointments_active_slot ON appointments (cid, doctor_id, active_date_time);
@@ -0,0 +1,118 @@
+package com.hms.appointment.controller;
+
+import com.hms.appointment.entity.Appointment;
+import com.hms.appointment.entity.AppointmentStatus;
+import com.hms.appointment.repository.AppointmentRepository;
+import com.hms.common.security.JwtUtil;
+import com.hms.common.test.TestDatabases;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Endpoints that complete asynchronously are dispatched a second time once their result is ready.
+ * JwtAuthFilter only runs on the first dispatch, so the second must still be let through by the
+ * security chain, or the client gets a 401/403 after the work has already been done.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class AsyncDispatchSecurityTest {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabases.mysql(registry);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Test
+    void imageUploadCompletesOnTheAsyncDispatch() throws Exception {
+        Appointment appointment = seed();
+        MockMultipartFile file = new MockMultipartFile("files", "scan.png", "image/png", png());
+
+        MvcResult started = mockMvc.perform(multipart("/api/appointments/{id}/images", appointment.getId())
+                        .file(file)
+                        .header(HttpHeaders.AUTHORIZATION, bearer(appointment.getCid())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.id").value(appointment.getId()))
+                // Local storage only serves signed URLs, so the stored one must not be handed out as is
+                .andExpect(jsonPath("$.data.imageUrl1").value(containsString("signature=")));
+    }
+
+    @Test
+    void exportStreamsOnTheAsyncDispatch() throws Exception {
+        Appointment appointment = seed();
+
+        MvcResult started = mockMvc.perform(get("/api/appointments/export")
+                        .param("cid", appointment.getCid())
+                        .param("format", "csv")
+                        .header(HttpHeaders.AUTHORIZATION, bearer(appointment.getCid())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string(startsWith("appointmentId,")))
+                .andExpect(content().string(containsString("Async dispatch")));
+    }
+
+    private String bearer(String cid) {
+        return "Bearer " + jwtUtil.generateToken("admin@hms.com", "ADMIN", cid);
+    }
+
+    private Appointment seed() {
+        return appointmentRepository.save(Appointment.builder()
+                .cid("T" + UUID.randomUUID().toString().substring(0, 8))
+                .doctorId(3L)
+                .patientId(30L)
+                .dateTime(LocalDateTime.of(2026, 4, 1, 9, 0))
+                .status(AppointmentStatus.BOOKED)
+                .notes("Async dispatch")
+                .build());
+    }
+
+    private static byte[] png() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
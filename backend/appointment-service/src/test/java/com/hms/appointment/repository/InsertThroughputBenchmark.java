@@ -0,0 +1,226 @@
+package com.hms.appointment.repository;
+
+import com.hms.appointment.entity.Appointment;
+import com.hms.appointment.entity.AppointmentStatus;
+import com.hms.appointment.entity.PrescribedMedicine;
+import com.hms.appointment.entity.Prescription;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Insert throughput before and after pooled sequence ids, once per vendor through
+ * {@link MySqlInsertThroughputBenchmark} and {@link PostgresInsertThroughputBenchmark}:
+ * <ul>
+ *   <li>{@code identity} - what GenerationType.IDENTITY forced: one INSERT per row, each reading
+ *       its generated key before the next can run</li>
+ *   <li>{@code pooled} - the same rows saved through {@link AppointmentRepository}, with ids from
+ *       the pooled generators and inserts batched by Hibernate (batch_size 50, ordered inserts)</li>
+ * </ul>
+ * Surefire only runs *Test classes, so this stays out of the regular build. Run it with
+ * {@code mvn -pl appointment-service test -Dtest='*InsertThroughputBenchmark'}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+abstract class InsertThroughputBenchmark {
+
+    private static final int PRESCRIPTIONS = 200;
+    private static final int MEDICINES_PER_PRESCRIPTION = 10;
+    private static final int BULK_APPOINTMENTS = 2_000;
+    // The best round is reported, so the first one only warms up
+    private static final int ROUNDS = 3;
+
+    // The identity path writes explicit ids here, clear of the pooled generators' range
+    private static final AtomicLong IDENTITY_IDS = new AtomicLong(800_000_000L);
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // One appointment with a ten-line prescription per transaction, as the booking screen saves it
+    @Test
+    void prescriptions() {
+        run("prescription save (12 rows)", PRESCRIPTIONS * (2 + MEDICINES_PER_PRESCRIPTION),
+                () -> {
+                    String cid = newTenant();
+                    int statements = 0;
+                    for (int i = 0; i < PRESCRIPTIONS; i++) {
+                        List<Appointment> graph = List.of(appointment(cid, i, MEDICINES_PER_PRESCRIPTION));
+                        statements += transactionTemplate.execute(status -> insertOneByOne(graph));
+                    }
+                    return statements;
+                },
+                () -> {
+                    String cid = newTenant();
+                    for (int i = 0; i < PRESCRIPTIONS; i++) {
+                        Appointment appointment = appointment(cid, i, MEDICINES_PER_PRESCRIPTION);
+                        transactionTemplate.executeWithoutResult(status -> appointmentRepository.save(appointment));
+                    }
+                });
+    }
+
+    // A whole import in one transaction
+    @Test
+    void bulkImport() {
+        run("bulk import (" + BULK_APPOINTMENTS + " appointments)", BULK_APPOINTMENTS,
+                () -> {
+                    List<Appointment> rows = appointments(newTenant());
+                    return transactionTemplate.execute(status -> insertOneByOne(rows));
+                },
+                () -> {
+                    List<Appointment> rows = appointments(newTenant());
+                    transactionTemplate.executeWithoutResult(status -> appointmentRepository.saveAll(rows));
+                });
+    }
+
+    private void run(String scenario, int rows, IntSupplier identity, Runnable pooled) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long identityNanos = Long.MAX_VALUE;
+        long pooledNanos = Long.MAX_VALUE;
+        int identityStatements = 0;
+        long pooledStatements = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            identityStatements = identity.getAsInt();
+            identityNanos = Math.min(identityNanos, System.nanoTime() - start);
+
+            statistics.clear();
+            start = System.nanoTime();
+            pooled.run();
+            pooledNanos = Math.min(pooledNanos, System.nanoTime() - start);
+            pooledStatements = statistics.getPrepareStatementCount();
+        }
+
+        System.out.printf("%s, %s%n", getClass().getSimpleName(), scenario);
+        System.out.printf("  identity: %6d ms, %8.0f rows/s, %5d statements%n",
+                TimeUnit.NANOSECONDS.toMillis(identityNanos), rowsPerSecond(rows, identityNanos), identityStatements);
+        System.out.printf("  pooled:   %6d ms, %8.0f rows/s, %5d statements%n",
+                TimeUnit.NANOSECONDS.toMillis(pooledNanos), rowsPerSecond(rows, pooledNanos), pooledStatements);
+
+        // Timings vary by machine; the statement count is what batching must change
+        assertThat(identityStatements).isEqualTo(rows);
+        assertThat(pooledStatements).isLessThan(identityStatements);
+    }
+
+    private static double rowsPerSecond(int rows, long nanos) {
+        return rows * 1e9 / nanos;
+    }
+
+    // Replays the IDENTITY write path: every row waits for its own INSERT and key read
+    private int insertOneByOne(List<Appointment> appointments) {
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            int statements = 0;
+            for (Appointment appointment : appointments) {
+                long appointmentId = insert(connection,
+                        "INSERT INTO appointments (id, cid, doctor_id, patient_id, date_time, status, notes) "
+                                + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                        appointment.getCid(), appointment.getDoctorId(), appointment.getPatientId(),
+                        Timestamp.valueOf(appointment.getDateTime()), appointment.getStatus().name(),
+                        appointment.getNotes());
+                statements++;
+                Prescription prescription = appointment.getPrescription();
+                if (prescription == null) {
+                    continue;
+                }
+                long prescriptionId = insert(connection,
+                        "INSERT INTO prescriptions (id, appointment_id, diagnosis, advice) VALUES (?, ?, ?, ?)",
+                        appointmentId, prescription.getDiagnosis(), prescription.getAdvice());
+                statements++;
+                for (PrescribedMedicine medicine : prescription.getMedicines()) {
+                    insert(connection, "INSERT INTO prescribed_medicines (id, prescription_id, medicine_name, "
+                                    + "quantity, dosage) VALUES (?, ?, ?, ?, ?)",
+                            prescriptionId, medicine.getMedicineName(), medicine.getQuantity(), medicine.getDosage());
+                    statements++;
+                }
+            }
+            return statements;
+        });
+    }
+
+    private long insert(Connection connection, String sql, Object... values) throws SQLException {
+        long id = IDENTITY_IDS.incrementAndGet();
+        try (PreparedStatement statement = connection.prepareStatement(sql, new String[]{"id"})) {
+            statement.setLong(1, id);
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 2, values[i]);
+            }
+            statement.executeUpdate();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                keys.next();
+            }
+        }
+        return id;
+    }
+
+    private static List<Appointment> appointments(String cid) {
+        List<Appointment> rows = new ArrayList<>(BULK_APPOINTMENTS);
+        for (int i = 0; i < BULK_APPOINTMENTS; i++) {
+            rows.add(appointment(cid, i, 0));
+        }
+        return rows;
+    }
+
+    private static Appointment appointment(String cid, int n, int medicines) {
+        Appointment appointment = Appointment.builder()
+                .cid(cid)
+                .doctorId(1L + n % 10)
+                .patientId(1000L + n)
+                .dateTime(LocalDateTime.of(2026, 1, 1, 8, 0).plusMinutes(n))
+                .status(AppointmentStatus.BOOKED)
+                .notes("notes " + n)
+                .build();
+        if (medicines > 0) {
+            Prescription prescription = Prescription.builder()
+                    .appointment(appointment)
+                    .diagnosis("diagnosis " + n)
+                    .advice("advice " + n)
+                    .build();
+            for (int m = 0; m < medicines; m++) {
+                prescription.getMedicines().add(PrescribedMedicine.builder()
+                        .prescription(prescription)
+                        .medicineName("Medicine " + m)
+                        .quantity(1 + m % 3)
+                        .dosage("1-0-1")
+                        .build());
+            }
+            appointment.setPrescription(prescription);
+        }
+        return appointment;
+    }
+
+    private static String newTenant() {
+        return "B" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
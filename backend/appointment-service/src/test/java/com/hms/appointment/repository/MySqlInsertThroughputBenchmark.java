@@ -0,0 +1,13 @@
+package com.hms.appointment.repository;
+
+import com.hms.common.test.TestDatabases;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+class MySqlInsertThroughputBenchmark extends InsertThroughputBenchmark {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabases.mysql(registry);
+    }
+}
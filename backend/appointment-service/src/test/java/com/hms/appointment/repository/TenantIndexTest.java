@@ -0,0 +1,111 @@
+package com.hms.appointment.repository;
+
+import com.hms.common.test.QueryPlans;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The hot tenant-scoped queries must be served by the indexes the migrations create. Runs once per
+ * vendor through {@link MySqlTenantIndexTest} and {@link PostgresTenantIndexTest}; the SQL mirrors
+ * what Hibernate generates for the repository methods named on each test.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Testcontainers(disabledWithoutDocker = true)
+abstract class TenantIndexTest {
+
+    private static final int TENANTS = 20;
+    private static final int ROWS_PER_TENANT = 25;
+    private static final String[] STATUSES = {"BOOKED", "COMPLETED", "CANCELLED"};
+    // One of the seeded tenants; inlined so the plans need no bind parameters
+    private static final String CID = "'IDX07'";
+    // Explicit ids far above what the pooled generator hands out to other tests on the same database
+    private static final long FIRST_ID = 900_000_000L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> appointments = new ArrayList<>();
+        List<Object[]> counts = new ArrayList<>();
+        long id = FIRST_ID;
+        for (int t = 0; t < TENANTS; t++) {
+            String cid = String.format("IDX%02d", t);
+            for (int i = 0; i < ROWS_PER_TENANT; i++, id++) {
+                appointments.add(new Object[]{id, cid, 1L + i % 5, 100L + i,
+                        LocalDateTime.of(2026, 1, 1, 8, 0).plusHours(i), STATUSES[i % STATUSES.length]});
+                counts.add(new Object[]{cid, LocalDate.of(2026, 1, 1).plusDays(i)});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO appointments (id, cid, doctor_id, patient_id, date_time, status) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", appointments);
+        jdbcTemplate.batchUpdate("INSERT INTO appointment_daily_counts (cid, appointment_date, booked, completed, "
+                + "cancelled) VALUES (?, ?, 1, 0, 0)", counts);
+        QueryPlans.analyze(jdbcTemplate, "appointments", "appointment_daily_counts");
+    }
+
+    // AppointmentRepository.findPageIdsAfter without filters: keyset scroll in (date_time, id) order
+    @Test
+    void tenantPage() {
+        assertUsesIndex("SELECT id FROM appointments WHERE cid = " + CID + " AND date_time IS NOT NULL "
+                + "ORDER BY date_time DESC, id DESC LIMIT 21", "idx_appointments_cid_date_time");
+    }
+
+    // AppointmentRepository.findPageIdsAfter with a status filter; the plain tenant index also fits
+    @Test
+    void statusFilteredPage() {
+        assertUsesIndex("SELECT id FROM appointments WHERE cid = " + CID + " AND status = 'BOOKED' "
+                        + "ORDER BY date_time DESC, id DESC LIMIT 21",
+                "idx_appointments_cid_status_date_time", "idx_appointments_cid_date_time");
+    }
+
+    // AppointmentRepository.countByCidAndDateTimeBetween (today's appointments)
+    @Test
+    void todaysCount() {
+        assertUsesIndex("SELECT COUNT(*) FROM appointments WHERE cid = " + CID
+                + " AND date_time BETWEEN '2026-01-01 00:00:00' AND '2026-01-01 23:59:59'",
+                "idx_appointments_cid_date_time");
+    }
+
+    // AppointmentRepository.findDoctorSchedule / findOccupiedTimes
+    @Test
+    void doctorSchedule() {
+        assertUsesIndex("SELECT * FROM appointments WHERE cid = " + CID + " AND doctor_id = 3 "
+                + "AND date_time >= '2026-01-01 00:00:00' AND date_time < '2026-01-02 00:00:00' "
+                + "ORDER BY date_time, id", "idx_appointments_cid_doctor_date_time");
+    }
+
+    // AppointmentDailyCountRepository.sumByCidAndDate; the tenant's total is a primary key lookup
+    @Test
+    void tenantStats() {
+        assertUsesIndex("SELECT COALESCE(SUM(booked + completed + cancelled), 0) FROM appointment_daily_counts "
+                + "WHERE cid = " + CID + " AND appointment_date = '2026-01-05'",
+                "uk_appointment_daily_counts_cid_date");
+    }
+
+    // AppointmentDailyCountRepository.sumByDate (all-tenant stats for today)
+    @Test
+    void allTenantStatsForToday() {
+        assertUsesIndex("SELECT COALESCE(SUM(booked + completed + cancelled), 0) FROM appointment_daily_counts "
+                + "WHERE appointment_date = '2026-01-05'", "idx_appointment_daily_counts_date");
+    }
+
+    private void assertUsesIndex(String sql, String... indexes) {
+        assertThat(QueryPlans.explain(jdbcTemplate, sql)).as(sql).containsAnyOf(indexes);
+    }
+}
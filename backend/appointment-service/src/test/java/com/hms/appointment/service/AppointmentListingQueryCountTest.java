@@ -0,0 +1,129 @@
+package com.hms.appointment.service;
+
+import com.hms.appointment.entity.Appointment;
+import com.hms.appointment.entity.AppointmentStatus;
+import com.hms.appointment.entity.PrescribedMedicine;
+import com.hms.appointment.entity.Prescription;
+import com.hms.appointment.repository.AppointmentRepository;
+import com.hms.common.test.TestAuth;
+import com.hms.common.test.TestDatabases;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Listings must cost the same number of SQL statements however many appointments, prescriptions
+ * and medicines the tenant has.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class AppointmentListingQueryCountTest {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabases.mysql(registry);
+    }
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void tenantListingUsesOneStatementRegardlessOfRowCount() {
+        String small = seedTenant(3);
+        String large = seedTenant(40);
+
+        long smallStatements = statementsFor(small, () -> appointmentService.getByCidDto(small));
+        long largeStatements = statementsFor(large, () -> appointmentService.getByCidDto(large));
+
+        assertThat(smallStatements).isEqualTo(1);
+        assertThat(largeStatements).isEqualTo(smallStatements);
+    }
+
+    @Test
+    void pagedListingUsesTwoStatementsRegardlessOfPageSize() {
+        String cid = seedTenant(40);
+
+        long smallPage = statementsFor(cid, () -> appointmentService.getPage(cid, 0, 5, null, null, null));
+        long largePage = statementsFor(cid, () -> appointmentService.getPage(cid, 0, 40, null, null, null));
+
+        assertThat(smallPage).isEqualTo(2);
+        assertThat(largePage).isEqualTo(smallPage);
+    }
+
+    private long statementsFor(String cid, Supplier<?> listing) {
+        TestAuth.signIn("ADMIN", cid);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Object result = listing.get();
+        assertThat(result).isNotNull();
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Each appointment gets a prescription with three medicines, so a lazy path would show up as 2N+ selects
+    private String seedTenant(int appointments) {
+        String cid = "T" + UUID.randomUUID().toString().substring(0, 8);
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Appointment> rows = new ArrayList<>();
+            for (int i = 0; i < appointments; i++) {
+                Appointment appointment = Appointment.builder()
+                        .cid(cid)
+                        .doctorId(1L + i % 3)
+                        .patientId(100L + i)
+                        .dateTime(LocalDateTime.of(2026, 1, 1, 9, 0).plusHours(i))
+                        .status(AppointmentStatus.BOOKED)
+                        .notes("notes " + i)
+                        .build();
+                Prescription prescription = Prescription.builder()
+                        .appointment(appointment)
+                        .diagnosis("diagnosis " + i)
+                        .advice("advice " + i)
+                        .medicines(new ArrayList<>())
+                        .build();
+                for (int m = 0; m < 3; m++) {
+                    prescription.getMedicines().add(PrescribedMedicine.builder()
+                            .prescription(prescription)
+                            .medicineName("Medicine " + m)
+                            .quantity(m + 1)
+                            .dosage("1-0-1")
+                            .build());
+                }
+                appointment.setPrescription(prescription);
+                rows.add(appointment);
+            }
+            appointmentRepository.saveAll(rows);
+        });
+        return cid;
+    }
+}
@@ -0,0 +1,158 @@
+package com.hms.appointment.service;
+
+import com.hms.appointment.dto.AppointmentDto;
+import com.hms.appointment.entity.Appointment;
+import com.hms.appointment.entity.AppointmentStatus;
+import com.hms.appointment.repository.AppointmentRepository;
+import com.hms.common.test.TestAuth;
+import com.hms.common.test.TestDatabases;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Double bookings are finally rejected by {@code uk_appointments_active_slot}, not by the
+ * per-instance {@link DoctorSlotRegistry}: concurrent writers that skip the registry, as other
+ * instances effectively do, must still leave exactly one active booking per doctor and minute.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class ConcurrentBookingTest {
+
+    private static final int WRITERS = 8;
+    private static final LocalDateTime SLOT = LocalDateTime.of(2026, 5, 4, 9, 30);
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabases.mysql(registry);
+    }
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void concurrentInsertsOfOneSlotLeaveExactlyOneBooking() throws Exception {
+        String cid = newCid();
+        List<Throwable> failures = race(() -> appointmentRepository.saveAndFlush(booking(cid, SLOT)));
+
+        assertThat(failures).hasSize(WRITERS - 1)
+                .allSatisfy(failure -> assertThat(failure).isInstanceOf(DataIntegrityViolationException.class));
+        assertThat(bookings(cid)).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentServiceBookingsOfOneSlotLeaveExactlyOneBooking() throws Exception {
+        String cid = newCid();
+        List<Throwable> failures = race(() -> {
+            TestAuth.signIn("ADMIN", cid);
+            try {
+                return appointmentService.create(dto(cid, SLOT));
+            } finally {
+                TestAuth.signOut();
+            }
+        });
+
+        assertThat(failures).hasSize(WRITERS - 1)
+                .allSatisfy(failure -> assertThat(failure).isInstanceOf(IllegalArgumentException.class));
+        assertThat(bookings(cid)).isEqualTo(1);
+    }
+
+    @Test
+    void bookingTheRegistryDoesNotKnowAboutIsRejectedByTheConstraint() {
+        String cid = newCid();
+        TestAuth.signIn("ADMIN", cid);
+        // Loads the doctor's day into the registry
+        appointmentService.create(dto(cid, SLOT.minusHours(1)));
+        // Booked through another instance: this instance's registry never hears of it
+        appointmentRepository.saveAndFlush(booking(cid, SLOT));
+
+        assertThatThrownBy(() -> appointmentService.create(dto(cid, SLOT)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Doctor already has an appointment");
+        assertThat(bookings(cid)).isEqualTo(2);
+    }
+
+    // Starts every writer at once and returns what the losers threw
+    private List<Throwable> race(Callable<?> writer) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return writer.call();
+                }));
+            }
+            start.countDown();
+            List<Throwable> failures = new ArrayList<>();
+            for (Future<?> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause());
+                }
+            }
+            return failures;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Nothing here is ever cancelled, so every row of the tenant holds its slot
+    private long bookings(String cid) {
+        return appointmentRepository.countByCid(cid);
+    }
+
+    private static Appointment booking(String cid, LocalDateTime dateTime) {
+        return Appointment.builder()
+                .cid(cid)
+                .doctorId(5L)
+                .patientId(50L)
+                .dateTime(dateTime)
+                .status(AppointmentStatus.BOOKED)
+                .build();
+    }
+
+    private static AppointmentDto dto(String cid, LocalDateTime dateTime) {
+        AppointmentDto dto = new AppointmentDto();
+        dto.setCid(cid);
+        dto.setDoctorId(5L);
+        dto.setPatientId(50L);
+        dto.setDateTime(dateTime);
+        return dto;
+    }
+
+    private static String newCid() {
+        return "T" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
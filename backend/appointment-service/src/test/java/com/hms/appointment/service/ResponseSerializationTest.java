@@ -0,0 +1,144 @@
+package com.hms.appointment.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.appointment.entity.Appointment;
+import com.hms.appointment.entity.AppointmentStatus;
+import com.hms.appointment.entity.PrescribedMedicine;
+import com.hms.appointment.entity.Prescription;
+import com.hms.appointment.repository.AppointmentRepository;
+import com.hms.common.test.TestAuth;
+import com.hms.common.test.TestDatabases;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Read endpoints hand Jackson plain DTOs built inside the service. With open-in-view off, a lazy
+ * attribute reaching the serializer would throw LazyInitializationException; these checks also
+ * make sure writing the response issues no SQL and that list rows leave the free text out.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class ResponseSerializationTest {
+
+    private static final String NOTES = "Follow-up in two weeks. ".repeat(20);
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabases.mysql(registry);
+    }
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void listResponsesSerializeWithoutLazyLoadsOrFreeText() throws Exception {
+        Appointment appointment = seed();
+        String cid = appointment.getCid();
+        TestAuth.signIn("ADMIN", cid);
+
+        for (Object response : new Object[] {
+                appointmentService.getByCidDto(cid),
+                appointmentService.getPage(cid, 0, 10, null, null, null).getContent(),
+                appointmentService.getByDoctor(cid, appointment.getDoctorId()),
+                appointmentService.getDoctorSchedule(cid, appointment.getDoctorId(),
+                        LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 1))}) {
+            JsonNode rows = serialize(response);
+            assertThat(rows).hasSize(1);
+            JsonNode row = rows.get(0);
+            assertThat(row.get("notes").isNull()).isTrue();
+            assertThat(row.get("notesPreview").asText())
+                    .hasSize(Appointment.NOTES_PREVIEW_LENGTH + 1)
+                    .endsWith("\u2026");
+            assertThat(row.at("/prescription/diagnosis").isNull()).isTrue();
+            assertThat(row.at("/prescription/advice").isNull()).isTrue();
+            assertThat(row.at("/prescription/medicines")).hasSize(2);
+        }
+    }
+
+    @Test
+    void detailResponseCarriesTheFreeTextWithoutLazyLoads() throws Exception {
+        Appointment appointment = seed();
+        TestAuth.signIn("ADMIN", appointment.getCid());
+
+        JsonNode detail = serialize(appointmentService.getDetail(appointment.getId()));
+
+        assertThat(detail.get("notes").asText()).isEqualTo(NOTES);
+        assertThat(detail.at("/prescription/diagnosis").asText()).isEqualTo("Migraine");
+        assertThat(detail.at("/prescription/advice").asText()).isEqualTo("Rest");
+    }
+
+    // The service call has returned and its transaction is over; writing the JSON must not reach the database
+    private JsonNode serialize(Object response) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        String json = objectMapper.writeValueAsString(response);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        return objectMapper.readTree(json);
+    }
+
+    private Appointment seed() {
+        String cid = "T" + UUID.randomUUID().toString().substring(0, 8);
+        return transactionTemplate.execute(status -> {
+            Appointment appointment = Appointment.builder()
+                    .cid(cid)
+                    .doctorId(7L)
+                    .patientId(70L)
+                    .dateTime(LocalDateTime.of(2026, 3, 1, 10, 0))
+                    .status(AppointmentStatus.BOOKED)
+                    .notes(NOTES)
+                    .build();
+            Prescription prescription = Prescription.builder()
+                    .appointment(appointment)
+                    .diagnosis("Migraine")
+                    .advice("Rest")
+                    .medicines(new ArrayList<>())
+                    .build();
+            for (int m = 0; m < 2; m++) {
+                prescription.getMedicines().add(PrescribedMedicine.builder()
+                        .prescription(prescription)
+                        .medicineName("Medicine " + m)
+                        .quantity(1)
+                        .dosage("1-0-1")
+                        .build());
+            }
+            appointment.setPrescription(prescription);
+            return appointmentRepository.save(appointment);
+        });
+    }
+}
@@ -3,6 +3,7 @@ package com.hms.auth.controller;
 import com.hms.auth.dto.AuthResponse;
 import com.hms.auth.dto.LoginRequest;
 import com.hms.auth.dto.RegisterRequest;
+import com.hms.auth.dto.UserDto;
 import com.hms.auth.service.AuthService;
 import com.hms.common.dto.ApiResponse;
 import jakarta.validation.Valid;
@@ -38,7 +39,7 @@ public class AuthController {
     }
 
     @GetMapping("/users")
-    public ResponseEntity<ApiResponse<java.util.List<com.hms.auth.entity.User>>> getAllUsers(
+    public ResponseEntity<ApiResponse<java.util.List<UserDto>>> getAllUsers(
             @RequestParam(required = false) String cid) {
         return ResponseEntity.ok(ApiResponse.success(authService.getAllUsers(cid)));
     }
@@ -0,0 +1,17 @@
+package com.hms.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// User as returned by the API; never carries the password hash
+@Data
+@AllArgsConstructor
+public class UserDto {
+    private Long id;
+    private String username;
+    private String role;
+    private String cid;
+    private String fullName;
+    private boolean enabled;
+    private String theme;
+}
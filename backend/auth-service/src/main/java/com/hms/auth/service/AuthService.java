@@ -3,6 +3,7 @@ package com.hms.auth.service;
 import com.hms.auth.dto.AuthResponse;
 import com.hms.auth.dto.LoginRequest;
 import com.hms.auth.dto.RegisterRequest;
+import com.hms.auth.dto.UserDto;
 import com.hms.auth.entity.Role;
 import com.hms.auth.entity.User;
 import com.hms.auth.repository.UserRepository;
@@ -12,6 +13,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class AuthService {
@@ -58,15 +60,19 @@ public class AuthService {
         return new AuthResponse(token, user.getUsername(), user.getRole().name(), user.getCid(), user.getFullName(), user.getTheme());
     }
 
-    public List<User> getAllUsers(String cid) {
+    public List<UserDto> getAllUsers(String cid) {
+        List<User> users;
         if (SecurityUtils.isSuperAdmin()) {
-            if (cid != null && !cid.isEmpty()) {
-                return userRepository.findByCid(cid);
-            }
-            return userRepository.findAll();
+            users = cid != null && !cid.isEmpty() ? userRepository.findByCid(cid) : userRepository.findAll();
+        } else {
+            users = userRepository.findByCid(SecurityUtils.getCurrentCid());
         }
-        String currentCid = SecurityUtils.getCurrentCid();
-        return userRepository.findByCid(currentCid);
+        return users.stream().map(AuthService::toDto).collect(Collectors.toList());
+    }
+
+    private static UserDto toDto(User user) {
+        return new UserDto(user.getId(), user.getUsername(), user.getRole().name(), user.getCid(),
+                user.getFullName(), user.isEnabled(), user.getTheme());
     }
 
     public AuthResponse login(LoginRequest request) {
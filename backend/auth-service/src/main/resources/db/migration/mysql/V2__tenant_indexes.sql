@@ -0,0 +1,2 @@
+-- UserRepository.findByCid
+CREATE INDEX idx_users_cid ON users (cid);
@@ -0,0 +1,5 @@
+-- Pooled id generators (allocationSize = 50). MySQL has no sequences, so Hibernate keeps each
+-- one in a single-row table; next_val starts past the ids already handed out by AUTO_INCREMENT
+
+CREATE TABLE users_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO users_seq (next_val) SELECT COALESCE(MAX(id), 0) + 100 FROM users;
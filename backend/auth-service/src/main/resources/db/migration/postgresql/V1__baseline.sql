@@ -0,0 +1,13 @@
+-- Tables as previously created by ddl-auto=update; no-op on databases that already have them
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(50) NOT NULL,
+    cid VARCHAR(255) NOT NULL,
+    full_name VARCHAR(255),
+    enabled BOOLEAN NOT NULL DEFAULT TRUE,
+    theme VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
@@ -0,0 +1,2 @@
+-- UserRepository.findByCid
+CREATE INDEX IF NOT EXISTS idx_users_cid ON users (cid);
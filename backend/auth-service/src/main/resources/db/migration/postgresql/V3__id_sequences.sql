@@ -0,0 +1,5 @@
+-- Pooled id generators (allocationSize = 50); each sequence starts past the ids already
+-- handed out by the identity columns
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 100 FROM users));
@@ -0,0 +1,66 @@
+package com.hms.auth.repository;
+
+import com.hms.common.test.QueryPlans;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The user queries must be served by the indexes the migrations create. Runs once per vendor
+ * through {@link MySqlTenantIndexTest} and {@link PostgresTenantIndexTest}.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Testcontainers(disabledWithoutDocker = true)
+abstract class TenantIndexTest {
+
+    private static final int TENANTS = 20;
+    private static final int USERS_PER_TENANT = 25;
+    // One of the seeded tenants; inlined so the plans need no bind parameters
+    private static final String CID = "'IDX07'";
+    // Explicit ids far above what the pooled generator hands out to the seeded accounts
+    private static final long FIRST_ID = 900_000_000L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> users = new ArrayList<>();
+        long id = FIRST_ID;
+        for (int t = 0; t < TENANTS; t++) {
+            String cid = String.format("IDX%02d", t);
+            for (int i = 0; i < USERS_PER_TENANT; i++, id++) {
+                users.add(new Object[]{id, "user" + i + "@" + cid.toLowerCase() + ".test", "x", "DOCTOR", cid, "light"});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username, password, role, cid, enabled, theme) "
+                + "VALUES (?, ?, ?, ?, ?, TRUE, ?)", users);
+        QueryPlans.analyze(jdbcTemplate, "users");
+    }
+
+    // UserRepository.findByCid
+    @Test
+    void usersByTenant() {
+        assertUsesIndex("SELECT * FROM users WHERE cid = " + CID, "idx_users_cid");
+    }
+
+    // UserRepository.findByUsername / existsByUsername, on every login and registration
+    @Test
+    void userByUsername() {
+        assertUsesIndex("SELECT * FROM users WHERE username = 'user3@idx07.test'", "uk_users_username");
+    }
+
+    private void assertUsesIndex(String sql, String... indexes) {
+        assertThat(QueryPlans.explain(jdbcTemplate, sql)).as(sql).containsAnyOf(indexes);
+    }
+}
@@ -0,0 +1,6 @@
+package com.hms.common.security;
+
+import java.time.Instant;
+
+public record JwtPrincipal(String username, String role, String cid, Instant expiresAt) {
+}
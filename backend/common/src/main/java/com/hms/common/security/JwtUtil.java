@@ -2,24 +2,37 @@ package com.hms.common.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
 public class JwtUtil {
 
+    // Role carried by tokens services mint for each other; auth-service never issues it to users
+    public static final String SERVICE_ROLE = "SERVICE";
+
     @Value("${jwt.secret:MySecretKeyForHMSApplicationThatIsLongEnoughForHS256Algorithm}")
     private String secret;
 
     @Value("${jwt.expiration:86400000}")
     private long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    // Key and parser are immutable and thread-safe, so build them once instead of per call
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
     public String generateToken(String username, String role, String cid) {
@@ -29,16 +42,40 @@ public class JwtUtil {
                 .claim("cid", cid)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
+                .compact();
+    }
+
+    public String generateServiceToken(String serviceName, long ttlMillis) {
+        return Jwts.builder()
+                .subject(serviceName)
+                .claim("role", SERVICE_ROLE)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + ttlMillis))
+                .signWith(signingKey)
                 .compact();
     }
 
     public Claims extractClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * Verifies the token once and returns everything the security filter needs,
+     * or empty if the signature, format or expiry check fails.
+     */
+    public Optional<JwtPrincipal> verify(String token) {
+        try {
+            Claims claims = extractClaims(token);
+            Date exp = claims.getExpiration();
+            return Optional.of(new JwtPrincipal(
+                    claims.getSubject(),
+                    claims.get("role", String.class),
+                    claims.get("cid", String.class),
+                    exp != null ? exp.toInstant() : null));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
     }
 
     public String extractUsername(String token) {
@@ -54,11 +91,6 @@ public class JwtUtil {
     }
 
     public boolean isTokenValid(String token) {
-        try {
-            extractClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return verify(token).isPresent();
     }
 }
@@ -31,6 +31,11 @@ public class SecurityUtils {
         return "SUPER_ADMIN".equals(getCurrentRole());
     }
 
+    // Another HMS service calling with a token from ServiceTokenProvider
+    public static boolean isService() {
+        return JwtUtil.SERVICE_ROLE.equals(getCurrentRole());
+    }
+
     public static boolean isHospitalAdmin() {
         return "ADMIN".equals(getCurrentRole());
     }
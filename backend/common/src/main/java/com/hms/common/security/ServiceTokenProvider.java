@@ -0,0 +1,43 @@
+package com.hms.common.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Supplies the bearer token this service presents on calls to other HMS services. One token is
+ * reused until half its lifetime has passed, so the receiving side's verified-token cache holds
+ * a single entry per calling service rather than one per request.
+ */
+@Component
+public class ServiceTokenProvider {
+
+    private final JwtUtil jwtUtil;
+    private final String serviceName;
+    private final long ttlMillis;
+
+    private volatile String token;
+    private volatile long renewAt;
+
+    public ServiceTokenProvider(JwtUtil jwtUtil,
+            @Value("${spring.application.name:hms-service}") String serviceName,
+            @Value("${jwt.service-token.ttl-ms:600000}") long ttlMillis) {
+        this.jwtUtil = jwtUtil;
+        this.serviceName = serviceName;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public String token() {
+        long now = System.currentTimeMillis();
+        String current = token;
+        if (current == null || now >= renewAt) {
+            synchronized (this) {
+                if (token == null || now >= renewAt) {
+                    token = jwtUtil.generateServiceToken(serviceName, ttlMillis);
+                    renewAt = now + ttlMillis / 2;
+                }
+                current = token;
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,95 @@
+package com.hms.common.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a bearer token in {@link JwtAuthFilter}, which auth-,
+ * hospital- and appointment-service all run unchanged:
+ * <ul>
+ *   <li>{@code legacy} - the old filter path: four claim lookups, each rebuilding the HMAC key
+ *       and parser and verifying the signature again</li>
+ *   <li>{@code singleParse} - {@link JwtUtil#verify}: one verification with the prebuilt parser</li>
+ *   <li>{@code cached} - {@link VerifiedTokenCache#verify} for a token seen before</li>
+ * </ul>
+ * Run with {@code mvn -pl common test-compile exec:exec -Djmh.include=JwtVerificationBenchmark}
+ * (the exec plugin is configured in the parent pom), or from the IDE through {@link #main}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "MySecretKeyForHMSApplicationThatIsLongEnoughForHS256Algorithm";
+
+    private JwtUtil jwtUtil;
+    private VerifiedTokenCache tokenCache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", TimeUnit.HOURS.toMillis(1));
+        jwtUtil.init();
+        tokenCache = new VerifiedTokenCache(jwtUtil, 10_000,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        token = jwtUtil.generateToken("admin@hms.com", "ADMIN", "HOSP001");
+        tokenCache.verify(token);
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        blackhole.consume(legacyClaims(token).getExpiration());
+        blackhole.consume(legacyClaims(token).getSubject());
+        blackhole.consume(legacyClaims(token).get("role", String.class));
+        blackhole.consume(legacyClaims(token).get("cid", String.class));
+    }
+
+    @Benchmark
+    public Object singleParse() {
+        return jwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public Object cached() {
+        return tokenCache.verify(token);
+    }
+
+    // What JwtUtil.extractClaims did before the parser was built once
+    private static Claims legacyClaims(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
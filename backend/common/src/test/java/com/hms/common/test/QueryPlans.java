@@ -0,0 +1,57 @@
+package com.hms.common.test;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * EXPLAIN helpers for index tests. PostgreSQL plans with sequential scans disabled, so even a
+ * small test table shows whether an index can serve the query; MySQL reports its chosen key.
+ */
+public final class QueryPlans {
+
+    private QueryPlans() {
+    }
+
+    /** The index names the plan uses, one line per plan row. */
+    public static String explain(JdbcTemplate jdbcTemplate, String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            boolean postgres = isPostgres(connection.getMetaData().getDatabaseProductName());
+            try (Statement statement = connection.createStatement()) {
+                if (postgres) {
+                    statement.execute("SET enable_seqscan = off");
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery("EXPLAIN " + sql)) {
+                    while (rows.next()) {
+                        plan.append(postgres ? rows.getString(1) : rows.getString("key")).append('\n');
+                    }
+                } finally {
+                    if (postgres) {
+                        statement.execute("RESET enable_seqscan");
+                    }
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    /** Refreshes optimizer statistics after seeding. */
+    public static void analyze(JdbcTemplate jdbcTemplate, String... tables) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean postgres = isPostgres(connection.getMetaData().getDatabaseProductName());
+            try (Statement statement = connection.createStatement()) {
+                for (String table : tables) {
+                    statement.execute((postgres ? "ANALYZE " : "ANALYZE TABLE ") + table);
+                }
+            }
+            return null;
+        });
+    }
+
+    private static boolean isPostgres(String productName) {
+        return "PostgreSQL".equals(productName);
+    }
+}
@@ -0,0 +1,25 @@
+package com.hms.common.test;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+/** Sets up the security context the way JwtAuthFilter does for a verified token. */
+public final class TestAuth {
+
+    private TestAuth() {
+    }
+
+    public static void signIn(String role, String cid) {
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+                "test@hms.com", null, List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+        auth.setDetails(cid);
+        SecurityContextHolder.getContext().setAuthentication(auth);
+    }
+
+    public static void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+}
@@ -7,7 +7,11 @@
 if [ -n "$DATABASE_URL" ]; then
   # Strip the scheme (postgresql://) and extract host+db portion after the @
   HOST_AND_DB=$(echo "$DATABASE_URL" | sed 's|^postgresql://[^@]*@||')
-  export SPRING_DATASOURCE_URL="jdbc:postgresql://${HOST_AND_DB}"
+  # reWriteBatchedInserts turns Hibernate's JDBC insert batches into multi-row inserts
+  case "$HOST_AND_DB" in
+    *\?*) export SPRING_DATASOURCE_URL="jdbc:postgresql://${HOST_AND_DB}&reWriteBatchedInserts=true" ;;
+    *) export SPRING_DATASOURCE_URL="jdbc:postgresql://${HOST_AND_DB}?reWriteBatchedInserts=true" ;;
+  esac
 fi
 
 exec java -jar app.jar
@@ -0,0 +1,100 @@
+package com.hms.hospital.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class AppointmentClientConfig {
+
+    @Value("${appointment-service.connect-timeout-ms:1000}")
+    private long connectTimeoutMs;
+
+    @Value("${appointment-service.read-timeout-ms:2000}")
+    private long readTimeoutMs;
+
+    @Value("${appointment-service.pool.max-total:20}")
+    private int maxTotal;
+
+    @Value("${appointment-service.pool.acquire-timeout-ms:500}")
+    private long acquireTimeoutMs;
+
+    @Value("${dashboard.aggregation.threads:8}")
+    private int aggregationThreads;
+
+    @Value("${dashboard.aggregation.queue-capacity:100}")
+    private int aggregationQueueCapacity;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager appointmentConnectionManager(
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxTotal)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .build();
+        meterRegistry.ifAvailable(registry ->
+                new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "appointment-service")
+                        .bindTo(registry));
+        return connectionManager;
+    }
+
+    @Bean
+    public HttpComponentsClientHttpRequestFactory appointmentRequestFactory(
+            PoolingHttpClientConnectionManager appointmentConnectionManager) {
+        // Dashboard reads degrade to partial results instead of retrying
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(appointmentConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(acquireTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .disableAutomaticRetries()
+                .build();
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    // Runs the dashboard's per-source lookups; bounded so a slow source cannot pile up threads
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService dashboardExecutor(ObjectProvider<MeterRegistry> meterRegistry) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(aggregationThreads, aggregationThreads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(aggregationQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        meterRegistry.ifAvailable(registry ->
+                ExecutorServiceMetrics.monitor(registry, executor, "dashboard", List.of()));
+        return executor;
+    }
+}
@@ -0,0 +1,53 @@
+package com.hms.hospital.config;
+
+import com.hms.hospital.entity.MedicineStock;
+import com.hms.hospital.repository.MedicineStockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fills normalized_name for medicine rows created before the column existed. The V5 migration
+ * keys them in SQL; this catches rows it left behind, such as names that trim differently in
+ * Java. When a tenant has several rows with the same normalized name, only the oldest one is
+ * keyed (it is the one stock movements already resolved to); the others are reported and left
+ * unkeyed until renamed.
+ */
+@Configuration
+public class MedicineNameMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(MedicineNameMigration.class);
+
+    @Bean
+    public CommandLineRunner backfillNormalizedMedicineNames(MedicineStockRepository medicineStockRepository) {
+        return args -> {
+            List<MedicineStock> pending = medicineStockRepository.findByNormalizedNameIsNullOrderByIdAsc();
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            Set<String> claimed = new HashSet<>();
+            int keyed = 0;
+            for (MedicineStock stock : pending) {
+                String normalized = MedicineStock.normalize(stock.getMedicineName());
+                String key = stock.getCid() + "|" + normalized;
+                if (!claimed.add(key) || medicineStockRepository.existsByCidAndNormalizedName(stock.getCid(), normalized)) {
+                    log.warn("Duplicate medicine name for tenant {}: '{}' (id {}) - rename or merge it",
+                            stock.getCid(), stock.getMedicineName(), stock.getId());
+                    continue;
+                }
+                // Set explicitly: an unchanged entity is not dirty, so @PreUpdate alone would never run
+                stock.setNormalizedName(normalized);
+                medicineStockRepository.save(stock);
+                keyed++;
+            }
+            log.info("Normalized {} of {} medicine names", keyed, pending.size());
+        };
+    }
+}
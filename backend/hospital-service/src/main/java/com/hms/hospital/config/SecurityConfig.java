@@ -1,6 +1,7 @@
 package com.hms.hospital.config;
 
 import com.hms.common.security.JwtAuthFilter;
+import com.hms.common.security.JwtUtil;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -33,7 +34,9 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
-                        .requestMatchers(HttpMethod.POST, "/api/medicines/deduct", "/api/medicines/restore").permitAll()
+                        // Stock movements come from appointment-service's outbox, signed with a service token
+                        .requestMatchers(HttpMethod.POST, "/api/medicines/deduct", "/api/medicines/restore",
+                                "/api/medicines/movements").hasRole(JwtUtil.SERVICE_ROLE)
                         .anyRequest().authenticated())
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
 
@@ -18,7 +18,8 @@ public class DashboardController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<DashboardDto>> getDashboard(@RequestParam String cid) {
-        return ResponseEntity.ok(ApiResponse.success(dashboardService.getDashboardStats(cid)));
+    public ResponseEntity<ApiResponse<DashboardDto>> getDashboard(@RequestParam String cid,
+            @RequestHeader(value = "Authorization", required = false) String authorization) {
+        return ResponseEntity.ok(ApiResponse.success(dashboardService.getDashboardStats(cid, authorization)));
     }
 }
@@ -2,7 +2,6 @@ package com.hms.hospital.controller;
 
 import com.hms.common.dto.ApiResponse;
 import com.hms.hospital.dto.DoctorDto;
-import com.hms.hospital.entity.Doctor;
 import com.hms.hospital.service.DoctorService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -22,22 +21,22 @@ public class DoctorController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Doctor>>> getByCid(@RequestParam String cid) {
+    public ResponseEntity<ApiResponse<List<DoctorDto>>> getByCid(@RequestParam String cid) {
         return ResponseEntity.ok(ApiResponse.success(doctorService.getByCid(cid)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Doctor>> getById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<DoctorDto>> getById(@PathVariable Long id) {
         return ResponseEntity.ok(ApiResponse.success(doctorService.getById(id)));
     }
 
     @PostMapping
-    public ResponseEntity<ApiResponse<Doctor>> create(@Valid @RequestBody DoctorDto dto) {
+    public ResponseEntity<ApiResponse<DoctorDto>> create(@Valid @RequestBody DoctorDto dto) {
         return ResponseEntity.ok(ApiResponse.success("Doctor created", doctorService.create(dto)));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ApiResponse<Doctor>> update(@PathVariable Long id, @Valid @RequestBody DoctorDto dto) {
+    public ResponseEntity<ApiResponse<DoctorDto>> update(@PathVariable Long id, @Valid @RequestBody DoctorDto dto) {
         return ResponseEntity.ok(ApiResponse.success("Doctor updated", doctorService.update(id, dto)));
     }
 
@@ -2,7 +2,6 @@ package com.hms.hospital.controller;
 
 import com.hms.common.dto.ApiResponse;
 import com.hms.hospital.dto.HospitalDto;
-import com.hms.hospital.entity.Hospital;
 import com.hms.hospital.service.HospitalService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -22,22 +21,22 @@ public class HospitalController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Hospital>>> getAll() {
+    public ResponseEntity<ApiResponse<List<HospitalDto>>> getAll() {
         return ResponseEntity.ok(ApiResponse.success(hospitalService.getAll()));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Hospital>> getById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<HospitalDto>> getById(@PathVariable Long id) {
         return ResponseEntity.ok(ApiResponse.success(hospitalService.getById(id)));
     }
 
     @PostMapping
-    public ResponseEntity<ApiResponse<Hospital>> create(@Valid @RequestBody HospitalDto dto) {
+    public ResponseEntity<ApiResponse<HospitalDto>> create(@Valid @RequestBody HospitalDto dto) {
         return ResponseEntity.ok(ApiResponse.success("Hospital created", hospitalService.create(dto)));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ApiResponse<Hospital>> update(@PathVariable Long id, @Valid @RequestBody HospitalDto dto) {
+    public ResponseEntity<ApiResponse<HospitalDto>> update(@PathVariable Long id, @Valid @RequestBody HospitalDto dto) {
         return ResponseEntity.ok(ApiResponse.success("Hospital updated", hospitalService.update(id, dto)));
     }
 
@@ -2,9 +2,12 @@ package com.hms.hospital.controller;
 
 import com.hms.common.dto.ApiResponse;
 import com.hms.hospital.dto.MedicineStockDto;
-import com.hms.hospital.entity.MedicineStock;
+import com.hms.hospital.dto.StockMovementRequest;
+import com.hms.hospital.dto.StockMovementResultDto;
 import com.hms.hospital.service.MedicineStockService;
+import com.hms.hospital.service.StockMovementRejectedException;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -23,22 +26,22 @@ public class MedicineStockController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<MedicineStock>>> getByCid(@RequestParam String cid) {
+    public ResponseEntity<ApiResponse<List<MedicineStockDto>>> getByCid(@RequestParam String cid) {
         return ResponseEntity.ok(ApiResponse.success(medicineStockService.getByCid(cid)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<MedicineStock>> getById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<MedicineStockDto>> getById(@PathVariable Long id) {
         return ResponseEntity.ok(ApiResponse.success(medicineStockService.getById(id)));
     }
 
     @PostMapping
-    public ResponseEntity<ApiResponse<MedicineStock>> create(@Valid @RequestBody MedicineStockDto dto) {
+    public ResponseEntity<ApiResponse<MedicineStockDto>> create(@Valid @RequestBody MedicineStockDto dto) {
         return ResponseEntity.ok(ApiResponse.success("Medicine added", medicineStockService.create(dto)));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ApiResponse<MedicineStock>> update(@PathVariable Long id,
+    public ResponseEntity<ApiResponse<MedicineStockDto>> update(@PathVariable Long id,
             @Valid @RequestBody MedicineStockDto dto) {
         return ResponseEntity.ok(ApiResponse.success("Medicine updated", medicineStockService.update(id, dto)));
     }
@@ -50,31 +53,42 @@ public class MedicineStockController {
     }
 
     @GetMapping("/low-stock")
-    public ResponseEntity<ApiResponse<List<MedicineStock>>> getLowStock(
+    public ResponseEntity<ApiResponse<List<MedicineStockDto>>> getLowStock(
             @RequestParam String cid,
             @RequestParam(defaultValue = "10") int threshold) {
         return ResponseEntity.ok(ApiResponse.success(medicineStockService.getLowStock(cid, threshold)));
     }
 
+    @PostMapping("/movements")
+    public ResponseEntity<ApiResponse<List<StockMovementResultDto>>> applyMovements(@RequestParam String cid,
+            @Valid @RequestBody StockMovementRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Stock movements applied",
+                medicineStockService.applyMovements(cid, request.getLines())));
+    }
+
     @PostMapping("/deduct")
     public ResponseEntity<ApiResponse<Void>> deductStock(@RequestParam String cid,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody List<Map<String, Object>> medicineDeductions) {
-        for (Map<String, Object> deduction : medicineDeductions) {
-            String name = (String) deduction.get("medicineName");
-            int qty = (Integer) deduction.get("quantity");
-            medicineStockService.deductStock(cid, name, qty);
-        }
-        return ResponseEntity.ok(ApiResponse.success("Stock deducted successfully", null));
+        boolean applied = medicineStockService.applyMovement(cid, idempotencyKey, medicineDeductions, true);
+        return ResponseEntity.ok(ApiResponse.success(
+                applied ? "Stock deducted successfully" : "Stock deduction already applied", null));
     }
 
     @PostMapping("/restore")
     public ResponseEntity<ApiResponse<Void>> restoreStock(@RequestParam String cid,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody List<Map<String, Object>> medicineRestorations) {
-        for (Map<String, Object> restoration : medicineRestorations) {
-            String name = (String) restoration.get("medicineName");
-            int qty = (Integer) restoration.get("quantity");
-            medicineStockService.restoreStock(cid, name, qty);
-        }
-        return ResponseEntity.ok(ApiResponse.success("Stock restored successfully", null));
+        boolean applied = medicineStockService.applyMovement(cid, idempotencyKey, medicineRestorations, false);
+        return ResponseEntity.ok(ApiResponse.success(
+                applied ? "Stock restored successfully" : "Stock restoration already applied", null));
+    }
+
+    @ExceptionHandler(StockMovementRejectedException.class)
+    public ResponseEntity<ApiResponse<Void>> handleRejected(StockMovementRejectedException ex) {
+        HttpStatus status = ex.getReason() == StockMovementRejectedException.Reason.INSUFFICIENT_STOCK
+                ? HttpStatus.CONFLICT
+                : HttpStatus.UNPROCESSABLE_ENTITY;
+        return ResponseEntity.status(status).body(ApiResponse.error(ex.getMessage()));
     }
 }
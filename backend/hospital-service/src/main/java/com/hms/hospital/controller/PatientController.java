@@ -2,7 +2,8 @@ package com.hms.hospital.controller;
 
 import com.hms.common.dto.ApiResponse;
 import com.hms.hospital.dto.PatientDto;
-import com.hms.hospital.entity.Patient;
+import com.hms.hospital.dto.PatientPageDto;
+import com.hms.hospital.dto.PatientSummaryDto;
 import com.hms.hospital.service.PatientService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -22,22 +23,30 @@ public class PatientController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Patient>>> getByCid(@RequestParam String cid) {
+    public ResponseEntity<ApiResponse<List<PatientSummaryDto>>> getByCid(@RequestParam String cid) {
         return ResponseEntity.ok(ApiResponse.success(patientService.getByCid(cid)));
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<PatientPageDto>> search(@RequestParam String cid,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(ApiResponse.success(patientService.search(cid, q, page, size)));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Patient>> getById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<PatientDto>> getById(@PathVariable Long id) {
         return ResponseEntity.ok(ApiResponse.success(patientService.getById(id)));
     }
 
     @PostMapping
-    public ResponseEntity<ApiResponse<Patient>> create(@Valid @RequestBody PatientDto dto) {
+    public ResponseEntity<ApiResponse<PatientDto>> create(@Valid @RequestBody PatientDto dto) {
         return ResponseEntity.ok(ApiResponse.success("Patient created", patientService.create(dto)));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ApiResponse<Patient>> update(@PathVariable Long id, @Valid @RequestBody PatientDto dto) {
+    public ResponseEntity<ApiResponse<PatientDto>> update(@PathVariable Long id, @Valid @RequestBody PatientDto dto) {
         return ResponseEntity.ok(ApiResponse.success("Patient updated", patientService.update(id, dto)));
     }
 
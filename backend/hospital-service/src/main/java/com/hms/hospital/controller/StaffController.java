@@ -2,7 +2,6 @@ package com.hms.hospital.controller;
 
 import com.hms.common.dto.ApiResponse;
 import com.hms.hospital.dto.StaffDto;
-import com.hms.hospital.entity.Staff;
 import com.hms.hospital.service.StaffService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -22,22 +21,22 @@ public class StaffController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Staff>>> getByCid(@RequestParam String cid) {
+    public ResponseEntity<ApiResponse<List<StaffDto>>> getByCid(@RequestParam String cid) {
         return ResponseEntity.ok(ApiResponse.success(staffService.getByCid(cid)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Staff>> getById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<StaffDto>> getById(@PathVariable Long id) {
         return ResponseEntity.ok(ApiResponse.success(staffService.getById(id)));
     }
 
     @PostMapping
-    public ResponseEntity<ApiResponse<Staff>> create(@Valid @RequestBody StaffDto dto) {
+    public ResponseEntity<ApiResponse<StaffDto>> create(@Valid @RequestBody StaffDto dto) {
         return ResponseEntity.ok(ApiResponse.success("Staff created", staffService.create(dto)));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ApiResponse<Staff>> update(@PathVariable Long id, @Valid @RequestBody StaffDto dto) {
+    public ResponseEntity<ApiResponse<StaffDto>> update(@PathVariable Long id, @Valid @RequestBody StaffDto dto) {
         return ResponseEntity.ok(ApiResponse.success("Staff updated", staffService.update(id, dto)));
     }
 
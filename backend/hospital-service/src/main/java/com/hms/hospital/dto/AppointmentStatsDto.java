@@ -0,0 +1,14 @@
+package com.hms.hospital.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Mirror of appointment-service's /api/appointments/stats payload
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentStatsDto {
+    private long totalAppointments;
+    private long todaysAppointments;
+}
@@ -3,6 +3,8 @@ package com.hms.hospital.dto;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 public class DashboardDto {
@@ -11,4 +13,8 @@ public class DashboardDto {
     private long totalAppointments;
     private long todaysAppointments;
     private long lowStockMedicines;
+    // Changes whenever the tenant's figures change; clients can skip re-rendering an unchanged snapshot
+    private long version;
+    // Sources that failed or timed out; their figures read as zero rather than failing the dashboard
+    private List<String> unavailableSources;
 }
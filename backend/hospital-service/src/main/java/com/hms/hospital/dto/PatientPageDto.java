@@ -0,0 +1,16 @@
+package com.hms.hospital.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PatientPageDto {
+    private List<PatientSummaryDto> content;
+    private int page;
+    private int size;
+    private boolean hasNext;
+    private Long totalMatches; // null when browsing without a query
+}
@@ -0,0 +1,18 @@
+package com.hms.hospital.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Directory and search row: everything but the medical history
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientSummaryDto {
+    private Long id;
+    private String name;
+    private Integer age;
+    private String gender;
+    private String contact;
+    private Long hospitalId;
+}
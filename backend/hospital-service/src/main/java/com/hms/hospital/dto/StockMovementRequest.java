@@ -0,0 +1,33 @@
+package com.hms.hospital.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementRequest {
+
+    @NotEmpty(message = "At least one movement line is required")
+    private List<@Valid Line> lines;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        // Idempotency key of the movement this line belongs to; lines sharing it are applied once
+        private String reference;
+        @NotBlank(message = "Medicine name is required")
+        private String medicineName;
+        // Negative to deduct, positive to restore
+        @NotNull(message = "Delta is required")
+        private Integer delta;
+    }
+}
@@ -0,0 +1,14 @@
+package com.hms.hospital.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class StockMovementResultDto {
+    private String reference;
+    private String medicineName;
+    private int delta;
+    private Integer quantityAfter;
+    private String status; // APPLIED or DUPLICATE
+}
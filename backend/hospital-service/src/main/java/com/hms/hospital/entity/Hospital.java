@@ -12,7 +12,8 @@ import lombok.*;
 public class Hospital {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hospitals_seq")
+    @SequenceGenerator(name = "hospitals_seq", sequenceName = "hospitals_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
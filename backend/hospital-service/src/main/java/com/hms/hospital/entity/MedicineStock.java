@@ -4,9 +4,11 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDate;
+import java.util.Locale;
 
 @Entity
-@Table(name = "medicine_stock")
+@Table(name = "medicine_stock", uniqueConstraints = @UniqueConstraint(
+        name = "uk_medicine_stock_cid_normalized_name", columnNames = {"cid", "normalized_name"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,7 +16,8 @@ import java.time.LocalDate;
 public class MedicineStock {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "medicine_stock_seq")
+    @SequenceGenerator(name = "medicine_stock_seq", sequenceName = "medicine_stock_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -23,9 +26,23 @@ public class MedicineStock {
     @Column(nullable = false)
     private String medicineName;
 
+    // Trimmed, lower-cased medicineName; one row per name and tenant
+    @Column(name = "normalized_name")
+    private String normalizedName;
+
     private Integer quantity;
 
     private LocalDate expiryDate;
 
     private String supplier;
+
+    @PrePersist
+    @PreUpdate
+    void normalizeName() {
+        this.normalizedName = normalize(medicineName);
+    }
+
+    public static String normalize(String medicineName) {
+        return medicineName == null ? null : medicineName.trim().toLowerCase(Locale.ROOT);
+    }
 }
@@ -12,7 +12,8 @@ import lombok.*;
 public class Patient {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patients_seq")
+    @SequenceGenerator(name = "patients_seq", sequenceName = "patients_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -27,6 +28,11 @@ public class Patient {
 
     private String contact;
 
+    // Loaded on first access only (needs bytecode enhancement), so lists skip it; toString/equals
+    // leave it out, or logging a patient would load it
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Basic(fetch = FetchType.LAZY)
     @Column(columnDefinition = "TEXT")
     private String medicalHistory;
 
@@ -0,0 +1,33 @@
+package com.hms.hospital.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records an idempotency key of a stock movement that has already been applied,
+ * so redelivered movements from appointment-service are acknowledged without effect.
+ */
+@Entity
+@Table(name = "stock_movement_receipts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockMovementReceipt {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movement_receipts_seq")
+    @SequenceGenerator(name = "stock_movement_receipts_seq", sequenceName = "stock_movement_receipts_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private String cid;
+
+    @Column(nullable = false)
+    private LocalDateTime processedAt;
+}
@@ -2,7 +2,11 @@ package com.hms.hospital.repository;
 
 import com.hms.hospital.entity.MedicineStock;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface MedicineStockRepository extends JpaRepository<MedicineStock, Long> {
@@ -11,4 +15,25 @@ public interface MedicineStockRepository extends JpaRepository<MedicineStock, Lo
     List<MedicineStock> findByCidAndQuantityLessThan(String cid, int threshold);
 
     long countByQuantityLessThan(int threshold);
+
+    // Dashboard low-stock count, answered from idx_medicine_stock_cid_quantity
+    long countByCidAndQuantityLessThan(String cid, int threshold);
+
+    // Served by the unique (cid, normalized_name) index
+    List<MedicineStock> findByCidAndNormalizedNameIn(String cid, Collection<String> normalizedNames);
+
+    boolean existsByCidAndNormalizedName(String cid, String normalizedName);
+
+    boolean existsByCidAndNormalizedNameAndIdNot(String cid, String normalizedName, Long id);
+
+    List<MedicineStock> findByNormalizedNameIsNullOrderByIdAsc();
+
+    // Check and decrement in one statement; returns 0 when the stock is insufficient
+    @Modifying(clearAutomatically = true)
+    @Query("update MedicineStock m set m.quantity = m.quantity - :qty where m.id = :id and m.quantity >= :qty")
+    int decrementIfAvailable(@Param("id") Long id, @Param("qty") int qty);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update MedicineStock m set m.quantity = coalesce(m.quantity, 0) + :qty where m.id = :id")
+    int increment(@Param("id") Long id, @Param("qty") int qty);
 }
@@ -1,11 +1,26 @@
 package com.hms.hospital.repository;
 
+import com.hms.hospital.dto.PatientSummaryDto;
 import com.hms.hospital.entity.Patient;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     List<Patient> findByCid(String cid);
     long countByCid(String cid);
+
+    // Loads a tenant into PatientSearchIndex without the medical history column
+    @Query("select new com.hms.hospital.dto.PatientSummaryDto(p.id, p.name, p.age, p.gender, p.contact, p.hospitalId) "
+            + "from Patient p where p.cid = :cid")
+    List<PatientSummaryDto> findSummariesByCid(@Param("cid") String cid);
+
+    // Directory browsing in name order; Slice skips the count query
+    @Query("select new com.hms.hospital.dto.PatientSummaryDto(p.id, p.name, p.age, p.gender, p.contact, p.hospitalId) "
+            + "from Patient p where p.cid = :cid order by p.name, p.id")
+    Slice<PatientSummaryDto> findSummariesByCid(@Param("cid") String cid, Pageable pageable);
 }
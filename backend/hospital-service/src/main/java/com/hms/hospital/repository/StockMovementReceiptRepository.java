@@ -0,0 +1,14 @@
+package com.hms.hospital.repository;
+
+import com.hms.hospital.entity.StockMovementReceipt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface StockMovementReceiptRepository extends JpaRepository<StockMovementReceipt, Long> {
+    @Query("select r.idempotencyKey from StockMovementReceipt r where r.idempotencyKey in :keys")
+    List<String> findExistingKeys(@Param("keys") Collection<String> keys);
+}
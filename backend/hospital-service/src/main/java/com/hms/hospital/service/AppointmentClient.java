@@ -0,0 +1,77 @@
+package com.hms.hospital.service;
+
+import com.hms.common.dto.ApiResponse;
+import com.hms.hospital.dto.AppointmentStatsDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads appointment figures from appointment-service on behalf of the current user, forwarding
+ * their bearer token so appointment-service applies its own tenant checks.
+ */
+@Component
+public class AppointmentClient {
+
+    private static final ParameterizedTypeReference<ApiResponse<AppointmentStatsDto>> STATS_RESPONSE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final RestClient restClient;
+    private final MeterRegistry meterRegistry;
+
+    public AppointmentClient(RestClient.Builder restClientBuilder,
+            @Qualifier("appointmentRequestFactory") ClientHttpRequestFactory requestFactory,
+            @Value("${appointment-service.url:http://localhost:8083}") String baseUrl,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.restClient = restClientBuilder
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                .build();
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    public AppointmentStatsDto getStats(String cid, String authorization) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            ApiResponse<AppointmentStatsDto> response = restClient.get()
+                    .uri(uriBuilder -> uriBuilder.path("/api/appointments/stats").queryParam("cid", cid).build())
+                    .headers(headers -> {
+                        if (authorization != null) {
+                            headers.set(HttpHeaders.AUTHORIZATION, authorization);
+                        }
+                    })
+                    .retrieve()
+                    .body(STATS_RESPONSE);
+            if (response == null || response.getData() == null) {
+                throw new IllegalStateException("appointment-service returned no stats");
+            }
+            outcome = "success";
+            return response.getData();
+        } finally {
+            record(outcome, System.nanoTime() - start);
+        }
+    }
+
+    private void record(String outcome, long nanos) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Timer.builder("hms.appointment.client.requests")
+                .tag("operation", "getStats")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -1,45 +1,188 @@
 package com.hms.hospital.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hms.hospital.dto.AppointmentStatsDto;
 import com.hms.hospital.dto.DashboardDto;
 import com.hms.hospital.repository.DoctorRepository;
 import com.hms.hospital.repository.MedicineStockRepository;
 import com.hms.hospital.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Serves dashboard figures from a per-tenant snapshot. A committed patient, doctor or stock change
+ * drops the tenant's snapshot, so the next read recounts. Every change also bumps the version of
+ * the tenant's stripe, which the snapshot carries; a count that overlapped a change is served but
+ * not cached. The TTL bounds staleness from writes this instance never sees.
+ *
+ * <p>Appointment figures come from appointment-service. The local snapshot and that call run in
+ * parallel on a bounded executor, each with its own timeout; a source that fails or times out is
+ * listed in {@code unavailableSources} and the rest of the dashboard is still returned.
+ */
 @Service
 public class DashboardService {
 
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+    private static final String SOURCE_HOSPITAL = "hospital";
+    private static final String SOURCE_APPOINTMENTS = "appointments";
+
+    // Key of the all-tenant figures shown to super admins; CIDs are never "*"
+    private static final String ALL_TENANTS = "*";
+    // Versions are kept per stripe of tenants rather than per tenant, so they take fixed memory
+    private static final int VERSION_STRIPES = 64;
+
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
     private final MedicineStockRepository medicineStockRepository;
+    private final AppointmentClient appointmentClient;
+    private final ExecutorService dashboardExecutor;
+    private final int lowStockThreshold;
+    private final long hospitalTimeoutMs;
+    private final long appointmentsTimeoutMs;
+    private final Cache<String, Snapshot> snapshots;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
 
     public DashboardService(PatientRepository patientRepository,
             DoctorRepository doctorRepository,
-            MedicineStockRepository medicineStockRepository) {
+            MedicineStockRepository medicineStockRepository,
+            AppointmentClient appointmentClient,
+            @Qualifier("dashboardExecutor") ExecutorService dashboardExecutor,
+            @Value("${dashboard.low-stock-threshold:10}") int lowStockThreshold,
+            @Value("${dashboard.cache.max-tenants:1000}") long maxTenants,
+            @Value("${dashboard.cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${dashboard.timeout.hospital-ms:2000}") long hospitalTimeoutMs,
+            @Value("${dashboard.timeout.appointments-ms:2500}") long appointmentsTimeoutMs) {
         this.patientRepository = patientRepository;
         this.doctorRepository = doctorRepository;
         this.medicineStockRepository = medicineStockRepository;
+        this.appointmentClient = appointmentClient;
+        this.dashboardExecutor = dashboardExecutor;
+        this.lowStockThreshold = lowStockThreshold;
+        this.hospitalTimeoutMs = hospitalTimeoutMs;
+        this.appointmentsTimeoutMs = appointmentsTimeoutMs;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxTenants)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    private record Snapshot(long version, long patients, long doctors, long lowStock) {
     }
 
-    public DashboardDto getDashboardStats(String cid) {
+    /**
+     * Decides the tenant on the calling thread, since the security context does not follow the
+     * work onto the executor, then gathers both sources and waits at most for the slower timeout.
+     */
+    public DashboardDto getDashboardStats(String cid, String authorization) {
+        String key;
+        Supplier<long[]> counts;
         if (com.hms.common.security.SecurityUtils.isSuperAdmin()) {
-            return new DashboardDto(
+            key = ALL_TENANTS;
+            counts = () -> new long[] {
                     patientRepository.count(),
                     doctorRepository.count(),
-                    0, 0,
-                    medicineStockRepository.countByQuantityLessThan(10));
+                    medicineStockRepository.countByQuantityLessThan(lowStockThreshold)
+            };
+        } else {
+            // Validate CID for non-Super Admins
+            String currentCid = com.hms.common.security.SecurityUtils.getCurrentCid();
+            if (currentCid == null || !currentCid.equals(cid)) {
+                throw new com.hms.common.exception.ResourceNotFoundException("Dashboard Data", 0L);
+            }
+            key = cid;
+            counts = () -> new long[] {
+                    patientRepository.countByCid(cid),
+                    doctorRepository.countByCid(cid),
+                    medicineStockRepository.countByCidAndQuantityLessThan(cid, lowStockThreshold)
+            };
         }
 
-        // Validate CID for non-Super Admins
-        String currentCid = com.hms.common.security.SecurityUtils.getCurrentCid();
-        if (currentCid == null || !currentCid.equals(cid)) {
-            throw new com.hms.common.exception.ResourceNotFoundException("Dashboard Data", 0L);
+        CompletableFuture<Snapshot> local = fetch(SOURCE_HOSPITAL,
+                () -> snapshot(key, counts), hospitalTimeoutMs);
+        CompletableFuture<AppointmentStatsDto> remote = fetch(SOURCE_APPOINTMENTS,
+                () -> appointmentClient.getStats(cid, authorization), appointmentsTimeoutMs);
+
+        Snapshot snapshot = local.join();
+        AppointmentStatsDto appointments = remote.join();
+        List<String> unavailable = new ArrayList<>();
+        if (snapshot == null) {
+            unavailable.add(SOURCE_HOSPITAL);
+        }
+        if (appointments == null) {
+            unavailable.add(SOURCE_APPOINTMENTS);
         }
+        return new DashboardDto(
+                snapshot != null ? snapshot.patients() : 0,
+                snapshot != null ? snapshot.doctors() : 0,
+                appointments != null ? appointments.getTotalAppointments() : 0,
+                appointments != null ? appointments.getTodaysAppointments() : 0,
+                snapshot != null ? snapshot.lowStock() : 0,
+                snapshot != null ? snapshot.version() : 0,
+                unavailable);
+    }
 
-        long totalPatients = patientRepository.countByCid(cid);
-        long totalDoctors = doctorRepository.countByCid(cid);
-        long lowStockMedicines = medicineStockRepository.findByCidAndQuantityLessThan(cid, 10).size();
+    // Completes with null when the source fails, times out or the executor is saturated
+    private <T> CompletableFuture<T> fetch(String source, Supplier<T> call, long timeoutMs) {
+        try {
+            return CompletableFuture.supplyAsync(call, dashboardExecutor)
+                    .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                    .exceptionally(e -> {
+                        log.warn("Dashboard source {} unavailable: {}", source, e.toString());
+                        return null;
+                    });
+        } catch (RejectedExecutionException e) {
+            log.warn("Dashboard source {} skipped, executor saturated", source);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Runs after the change commits, or straight away for writes made outside a transaction.
+     * The all-tenant snapshot follows every tenant's changes.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTenantDataChanged(TenantDataChangedEvent event) {
+        apply(event.cid());
+        apply(ALL_TENANTS);
+    }
+
+    // Bumped before the snapshot is dropped, so a count racing this change cannot be cached after it
+    private void apply(String key) {
+        versions.incrementAndGet(stripe(key));
+        snapshots.invalidate(key);
+    }
+
+    private Snapshot snapshot(String key, Supplier<long[]> counts) {
+        Snapshot cached = snapshots.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        int stripe = stripe(key);
+        long seen = versions.get(stripe);
+        long[] figures = counts.get();
+        Snapshot fresh = new Snapshot(seen, figures[0], figures[1], figures[2]);
+        // Counted while a change committed: the figures may predate it, so serve them once
+        // without caching rather than keep a stale snapshot until the TTL
+        snapshots.asMap().compute(key, (k, existing) -> versions.get(stripe) == seen ? fresh : existing);
+        return fresh;
+    }
 
-        return new DashboardDto(totalPatients, totalDoctors, 0, 0, lowStockMedicines);
+    private static int stripe(String key) {
+        return Math.floorMod(key.hashCode(), VERSION_STRIPES);
     }
 }
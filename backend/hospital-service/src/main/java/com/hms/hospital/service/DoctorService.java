@@ -4,32 +4,42 @@ import com.hms.common.exception.ResourceNotFoundException;
 import com.hms.hospital.dto.DoctorDto;
 import com.hms.hospital.entity.Doctor;
 import com.hms.hospital.repository.DoctorRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class DoctorService {
 
     private final DoctorRepository doctorRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public DoctorService(DoctorRepository doctorRepository) {
+    public DoctorService(DoctorRepository doctorRepository, ApplicationEventPublisher eventPublisher) {
         this.doctorRepository = doctorRepository;
+        this.eventPublisher = eventPublisher;
     }
 
-    public List<Doctor> getByCid(String cid) {
+    public List<DoctorDto> getByCid(String cid) {
         validateCid(cid);
-        return doctorRepository.findByCid(cid);
+        return doctorRepository.findByCid(cid).stream()
+                .map(DoctorService::toDto)
+                .collect(Collectors.toList());
     }
 
-    public Doctor getById(Long id) {
+    public DoctorDto getById(Long id) {
+        return toDto(find(id));
+    }
+
+    private Doctor find(Long id) {
         Doctor doctor = doctorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Doctor", id));
         validateCid(doctor.getCid());
         return doctor;
     }
 
-    public Doctor create(DoctorDto dto) {
+    public DoctorDto create(DoctorDto dto) {
         Doctor doctor = Doctor.builder()
                 .cid(dto.getCid())
                 .name(dto.getName())
@@ -38,22 +48,39 @@ public class DoctorService {
                 .availability(dto.getAvailability())
                 .hospitalId(dto.getHospitalId())
                 .build();
-        return doctorRepository.save(doctor);
+        Doctor saved = doctorRepository.save(doctor);
+        eventPublisher.publishEvent(new TenantDataChangedEvent(saved.getCid(),
+                TenantDataChangedEvent.Type.DOCTORS));
+        return toDto(saved);
     }
 
-    public Doctor update(Long id, DoctorDto dto) {
-        Doctor doctor = getById(id);
+    public DoctorDto update(Long id, DoctorDto dto) {
+        Doctor doctor = find(id);
         doctor.setName(dto.getName());
         doctor.setSpecialization(dto.getSpecialization());
         doctor.setContact(dto.getContact());
         doctor.setAvailability(dto.getAvailability());
         doctor.setHospitalId(dto.getHospitalId());
-        return doctorRepository.save(doctor);
+        return toDto(doctorRepository.save(doctor));
     }
 
     public void delete(Long id) {
-        getById(id);
+        Doctor doctor = find(id);
         doctorRepository.deleteById(id);
+        eventPublisher.publishEvent(new TenantDataChangedEvent(doctor.getCid(),
+                TenantDataChangedEvent.Type.DOCTORS));
+    }
+
+    private static DoctorDto toDto(Doctor doctor) {
+        DoctorDto dto = new DoctorDto();
+        dto.setId(doctor.getId());
+        dto.setCid(doctor.getCid());
+        dto.setName(doctor.getName());
+        dto.setSpecialization(doctor.getSpecialization());
+        dto.setContact(doctor.getContact());
+        dto.setAvailability(doctor.getAvailability());
+        dto.setHospitalId(doctor.getHospitalId());
+        return dto;
     }
 
     private void validateCid(String cid) {
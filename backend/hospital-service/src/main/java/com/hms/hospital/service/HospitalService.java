@@ -7,6 +7,7 @@ import com.hms.hospital.repository.HospitalRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class HospitalService {
@@ -17,17 +18,23 @@ public class HospitalService {
         this.hospitalRepository = hospitalRepository;
     }
 
-    public List<Hospital> getAll() {
+    public List<HospitalDto> getAll() {
         if (com.hms.common.security.SecurityUtils.isSuperAdmin()) {
-            return hospitalRepository.findAll();
+            return hospitalRepository.findAll().stream()
+                    .map(HospitalService::toDto)
+                    .collect(Collectors.toList());
         }
         String cid = com.hms.common.security.SecurityUtils.getCurrentCid();
         return hospitalRepository.findByCid(cid)
-                .map(List::of)
+                .map(hospital -> List.of(toDto(hospital)))
                 .orElse(List.of());
     }
 
-    public Hospital getById(Long id) {
+    public HospitalDto getById(Long id) {
+        return toDto(find(id));
+    }
+
+    private Hospital find(Long id) {
         Hospital hospital = hospitalRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Hospital", id));
 
@@ -41,7 +48,7 @@ public class HospitalService {
         return hospital;
     }
 
-    public Hospital create(HospitalDto dto) {
+    public HospitalDto create(HospitalDto dto) {
         if (hospitalRepository.existsByCid(dto.getCid())) {
             throw new IllegalArgumentException("Hospital with CID " + dto.getCid() + " already exists");
         }
@@ -51,19 +58,29 @@ public class HospitalService {
                 .address(dto.getAddress())
                 .contact(dto.getContact())
                 .build();
-        return hospitalRepository.save(hospital);
+        return toDto(hospitalRepository.save(hospital));
     }
 
-    public Hospital update(Long id, HospitalDto dto) {
-        Hospital hospital = getById(id);
+    public HospitalDto update(Long id, HospitalDto dto) {
+        Hospital hospital = find(id);
         hospital.setName(dto.getName());
         hospital.setAddress(dto.getAddress());
         hospital.setContact(dto.getContact());
-        return hospitalRepository.save(hospital);
+        return toDto(hospitalRepository.save(hospital));
     }
 
     public void delete(Long id) {
-        getById(id);
+        find(id);
         hospitalRepository.deleteById(id);
     }
+
+    private static HospitalDto toDto(Hospital hospital) {
+        HospitalDto dto = new HospitalDto();
+        dto.setId(hospital.getId());
+        dto.setCid(hospital.getCid());
+        dto.setName(hospital.getName());
+        dto.setAddress(hospital.getAddress());
+        dto.setContact(hospital.getContact());
+        return dto;
+    }
 }
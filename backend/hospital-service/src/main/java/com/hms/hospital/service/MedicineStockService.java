@@ -2,34 +2,68 @@ package com.hms.hospital.service;
 
 import com.hms.common.exception.ResourceNotFoundException;
 import com.hms.hospital.dto.MedicineStockDto;
+import com.hms.hospital.dto.StockMovementRequest;
+import com.hms.hospital.dto.StockMovementResultDto;
 import com.hms.hospital.entity.MedicineStock;
+import com.hms.hospital.entity.StockMovementReceipt;
 import com.hms.hospital.repository.MedicineStockRepository;
+import com.hms.hospital.repository.StockMovementReceiptRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 public class MedicineStockService {
 
+    private static final String STATUS_APPLIED = "APPLIED";
+    private static final String STATUS_DUPLICATE = "DUPLICATE";
+
     private final MedicineStockRepository medicineStockRepository;
+    private final StockMovementReceiptRepository receiptRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public MedicineStockService(MedicineStockRepository medicineStockRepository) {
+    public MedicineStockService(MedicineStockRepository medicineStockRepository,
+            StockMovementReceiptRepository receiptRepository,
+            ApplicationEventPublisher eventPublisher) {
         this.medicineStockRepository = medicineStockRepository;
+        this.receiptRepository = receiptRepository;
+        this.eventPublisher = eventPublisher;
     }
 
-    public List<MedicineStock> getByCid(String cid) {
+    public List<MedicineStockDto> getByCid(String cid) {
         validateCid(cid);
-        return medicineStockRepository.findByCid(cid);
+        return medicineStockRepository.findByCid(cid).stream()
+                .map(MedicineStockService::toDto)
+                .collect(Collectors.toList());
+    }
+
+    public MedicineStockDto getById(Long id) {
+        return toDto(find(id));
     }
 
-    public MedicineStock getById(Long id) {
+    private MedicineStock find(Long id) {
         MedicineStock stock = medicineStockRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Medicine", id));
         validateCid(stock.getCid());
         return stock;
     }
 
-    public MedicineStock create(MedicineStockDto dto) {
+    public MedicineStockDto create(MedicineStockDto dto) {
+        if (medicineStockRepository.existsByCidAndNormalizedName(dto.getCid(),
+                MedicineStock.normalize(dto.getMedicineName()))) {
+            throw new IllegalArgumentException("Medicine " + dto.getMedicineName() + " already exists");
+        }
         MedicineStock stock = MedicineStock.builder()
                 .cid(dto.getCid())
                 .medicineName(dto.getMedicineName())
@@ -37,64 +71,160 @@ public class MedicineStockService {
                 .expiryDate(dto.getExpiryDate())
                 .supplier(dto.getSupplier())
                 .build();
-        return medicineStockRepository.save(stock);
+        MedicineStock saved = medicineStockRepository.save(stock);
+        stockChanged(saved.getCid());
+        return toDto(saved);
     }
 
-    public MedicineStock update(Long id, MedicineStockDto dto) {
-        MedicineStock stock = getById(id);
+    public MedicineStockDto update(Long id, MedicineStockDto dto) {
+        MedicineStock stock = find(id);
+        if (medicineStockRepository.existsByCidAndNormalizedNameAndIdNot(stock.getCid(),
+                MedicineStock.normalize(dto.getMedicineName()), id)) {
+            throw new IllegalArgumentException("Medicine " + dto.getMedicineName() + " already exists");
+        }
         stock.setMedicineName(dto.getMedicineName());
         stock.setQuantity(dto.getQuantity());
         stock.setExpiryDate(dto.getExpiryDate());
         stock.setSupplier(dto.getSupplier());
-        return medicineStockRepository.save(stock);
+        MedicineStock saved = medicineStockRepository.save(stock);
+        stockChanged(saved.getCid());
+        return toDto(saved);
     }
 
     public void delete(Long id) {
-        getById(id);
+        MedicineStock stock = find(id);
         medicineStockRepository.deleteById(id);
+        stockChanged(stock.getCid());
+    }
+
+    public List<MedicineStockDto> getLowStock(String cid, int threshold) {
+        return medicineStockRepository.findByCidAndQuantityLessThan(cid, threshold).stream()
+                .map(MedicineStockService::toDto)
+                .collect(Collectors.toList());
+    }
+
+    private static MedicineStockDto toDto(MedicineStock stock) {
+        MedicineStockDto dto = new MedicineStockDto();
+        dto.setId(stock.getId());
+        dto.setCid(stock.getCid());
+        dto.setMedicineName(stock.getMedicineName());
+        dto.setQuantity(stock.getQuantity());
+        dto.setExpiryDate(stock.getExpiryDate());
+        dto.setSupplier(stock.getSupplier());
+        return dto;
     }
 
-    public List<MedicineStock> getLowStock(String cid, int threshold) {
-        return medicineStockRepository.findByCidAndQuantityLessThan(cid, threshold);
+    /**
+     * Applies a whole deduction or restoration list in one transaction. Returns false without
+     * touching stock when a movement with the same idempotency key was already applied.
+     */
+    @Transactional
+    public boolean applyMovement(String cid, String idempotencyKey, List<Map<String, Object>> lines, boolean deduct) {
+        List<StockMovementRequest.Line> movementLines = lines.stream()
+                .map(line -> {
+                    int qty = (Integer) line.get("quantity");
+                    return new StockMovementRequest.Line(idempotencyKey, (String) line.get("medicineName"),
+                            deduct ? -qty : qty);
+                })
+                .collect(Collectors.toList());
+        return applyMovements(cid, movementLines).stream()
+                .anyMatch(result -> STATUS_APPLIED.equals(result.getStatus()));
     }
 
-    public void deductStock(String cid, String medicineName, int quantity) {
+    /**
+     * Applies many (medicine, delta) lines all-or-nothing. One query resolves every medicine,
+     * deltas are netted per medicine and each is applied as a single conditional update, so
+     * concurrent deductions cannot oversell. Lines whose reference was already applied are
+     * reported as duplicates and skipped.
+     */
+    @Transactional
+    public List<StockMovementResultDto> applyMovements(String cid, List<StockMovementRequest.Line> lines) {
         validateCid(cid);
-        List<MedicineStock> stocks = medicineStockRepository.findByCid(cid);
-        MedicineStock stock = stocks.stream()
-                .filter(s -> s.getMedicineName().equalsIgnoreCase(medicineName))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Medicine: " + medicineName + " not found for tenant: " + cid, 0L));
-
-        if (stock.getQuantity() < quantity) {
-            throw new IllegalArgumentException("Insufficient stock for " + medicineName);
+
+        Set<String> references = lines.stream()
+                .map(StockMovementRequest.Line::getReference)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> alreadyApplied = references.isEmpty()
+                ? Set.of()
+                : new HashSet<>(receiptRepository.findExistingKeys(references));
+
+        Set<String> names = lines.stream()
+                .map(line -> MedicineStock.normalize(line.getMedicineName()))
+                .collect(Collectors.toSet());
+        Map<String, MedicineStock> stockByName = medicineStockRepository.findByCidAndNormalizedNameIn(cid, names)
+                .stream()
+                .collect(Collectors.toMap(MedicineStock::getNormalizedName, stock -> stock));
+
+        // Net delta per row, applied in id order so concurrent batches lock rows in the same order
+        Map<Long, Integer> netDelta = new TreeMap<>();
+        Map<Long, String> nameById = new HashMap<>();
+        for (StockMovementRequest.Line line : lines) {
+            if (line.getReference() != null && alreadyApplied.contains(line.getReference())) {
+                continue;
+            }
+            MedicineStock stock = stockByName.get(MedicineStock.normalize(line.getMedicineName()));
+            if (stock == null) {
+                throw new StockMovementRejectedException(StockMovementRejectedException.Reason.UNKNOWN_MEDICINE,
+                        "Medicine " + line.getMedicineName() + " not found for tenant " + cid);
+            }
+            netDelta.merge(stock.getId(), line.getDelta(), Integer::sum);
+            nameById.putIfAbsent(stock.getId(), line.getMedicineName());
         }
 
-        stock.setQuantity(stock.getQuantity() - quantity);
-        medicineStockRepository.save(stock);
+        for (Map.Entry<Long, Integer> entry : netDelta.entrySet()) {
+            int delta = entry.getValue();
+            if (delta < 0) {
+                if (medicineStockRepository.decrementIfAvailable(entry.getKey(), -delta) == 0) {
+                    throw new StockMovementRejectedException(StockMovementRejectedException.Reason.INSUFFICIENT_STOCK,
+                            "Insufficient stock for " + nameById.get(entry.getKey()));
+                }
+            } else if (delta > 0) {
+                medicineStockRepository.increment(entry.getKey(), delta);
+            }
+        }
+
+        Map<Long, Integer> quantityById = new HashMap<>();
+        if (!netDelta.isEmpty()) {
+            medicineStockRepository.findAllById(netDelta.keySet())
+                    .forEach(stock -> quantityById.put(stock.getId(), stock.getQuantity()));
+        }
+
+        List<StockMovementResultDto> results = new ArrayList<>(lines.size());
+        for (StockMovementRequest.Line line : lines) {
+            if (line.getReference() != null && alreadyApplied.contains(line.getReference())) {
+                results.add(new StockMovementResultDto(line.getReference(), line.getMedicineName(),
+                        line.getDelta(), null, STATUS_DUPLICATE));
+            } else {
+                Long id = stockByName.get(MedicineStock.normalize(line.getMedicineName())).getId();
+                results.add(new StockMovementResultDto(line.getReference(), line.getMedicineName(),
+                        line.getDelta(), quantityById.get(id), STATUS_APPLIED));
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<StockMovementReceipt> receipts = references.stream()
+                .filter(reference -> !alreadyApplied.contains(reference))
+                .map(reference -> StockMovementReceipt.builder()
+                        .idempotencyKey(reference)
+                        .cid(cid)
+                        .processedAt(now)
+                        .build())
+                .collect(Collectors.toList());
+        receiptRepository.saveAll(receipts);
+        if (!netDelta.isEmpty()) {
+            stockChanged(cid);
+        }
+        return results;
     }
 
-    public void restoreStock(String cid, String medicineName, int quantity) {
-        validateCid(cid);
-        List<MedicineStock> stocks = medicineStockRepository.findByCid(cid);
-        MedicineStock stock = stocks.stream()
-                .filter(s -> s.getMedicineName().equalsIgnoreCase(medicineName))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Medicine: " + medicineName + " not found for tenant: " + cid, 0L));
-
-        stock.setQuantity(stock.getQuantity() + quantity);
-        medicineStockRepository.save(stock);
+    private void stockChanged(String cid) {
+        eventPublisher.publishEvent(new TenantDataChangedEvent(cid, TenantDataChangedEvent.Type.STOCK));
     }
 
+    // Services act for every tenant; everyone else is held to their own CID
     private void validateCid(String cid) {
-        org.springframework.security.core.Authentication auth = org.springframework.security.core.context.SecurityContextHolder
-                .getContext().getAuthentication();
-        if (auth == null || auth instanceof org.springframework.security.authentication.AnonymousAuthenticationToken) {
-            return; // Allow internal/unauthenticated requests if permitted in security config
-        }
-        if (!com.hms.common.security.SecurityUtils.isSuperAdmin()) {
+        if (!com.hms.common.security.SecurityUtils.isSuperAdmin() && !com.hms.common.security.SecurityUtils.isService()) {
             String currentCid = com.hms.common.security.SecurityUtils.getCurrentCid();
             if (currentCid == null || !currentCid.equals(cid)) {
                 throw new com.hms.common.exception.ResourceNotFoundException("Medicine or Target Data", 0L);
@@ -0,0 +1,18 @@
+package com.hms.hospital.service;
+
+import com.hms.hospital.dto.PatientSummaryDto;
+
+/**
+ * Published when a patient is created, updated or deleted, so the search index follows once the
+ * change commits. {@code patient} is null for a delete.
+ */
+public record PatientChangedEvent(String cid, Long id, PatientSummaryDto patient) {
+
+    static PatientChangedEvent saved(String cid, PatientSummaryDto patient) {
+        return new PatientChangedEvent(cid, patient.getId(), patient);
+    }
+
+    static PatientChangedEvent deleted(String cid, Long id) {
+        return new PatientChangedEvent(cid, id, null);
+    }
+}
@@ -0,0 +1,555 @@
+package com.hms.hospital.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hms.hospital.dto.PatientSummaryDto;
+import com.hms.hospital.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory name and contact search over one tenant's patients. Each tenant is loaded once from
+ * a projection without the medical history into an immutable snapshot holding a sorted token
+ * array (prefix matches) and trigram posting lists (fuzzy matches). Writes land in a small
+ * overlay that shadows the snapshot and is folded into a new snapshot in the background once
+ * it grows, so typing-speed lookups never touch the database. Writes arrive as
+ * {@link PatientChangedEvent}s once they commit. A snapshot older than
+ * {@code patient-search.reload-minutes} is rebuilt from the database in the background, which bounds
+ * drift from writes this instance never sees; searches keep using the old one until it is swapped.
+ */
+@Component
+public class PatientSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientSearchIndex.class);
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    // A fuzzy match must share at least this fraction of the query's trigrams
+    private static final double MIN_TRIGRAM_SHARE = 0.6;
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score)
+            .reversed()
+            .thenComparing(Hit::sortName)
+            .thenComparing(hit -> hit.patient().getId());
+
+    private final PatientRepository patientRepository;
+    private final Cache<String, TenantIndex> tenants;
+    private final long reloadNanos;
+
+    public PatientSearchIndex(PatientRepository patientRepository,
+            @Value("${patient-search.max-tenants:50}") int maxTenants,
+            @Value("${patient-search.idle-minutes:120}") long idleMinutes,
+            @Value("${patient-search.reload-minutes:60}") long reloadMinutes) {
+        this.patientRepository = patientRepository;
+        // Only idle tenants are evicted; stale ones are rebuilt in place, see TenantIndex.reloadIfStale
+        this.tenants = Caffeine.newBuilder()
+                .maximumSize(maxTenants)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .build();
+        this.reloadNanos = Duration.ofMinutes(reloadMinutes).toNanos();
+    }
+
+    public record Result(List<PatientSummaryDto> content, long totalMatches) {
+    }
+
+    /** Ranks prefix matches on any name word or the contact above fuzzy trigram matches. */
+    public Result search(String cid, String query, int offset, int limit) {
+        // Registered before loading, so writes committed during the load land in its overlay
+        TenantIndex index = tenants.get(cid, key -> new TenantIndex());
+        index.ensureLoaded(cid);
+        index.reloadIfStale(cid);
+        return index.search(new Query(query), offset, limit);
+    }
+
+    /**
+     * Runs after the change commits, so a rolled-back write never shows up in searches, or
+     * straight away for writes made outside a transaction.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        TenantIndex index = tenants.getIfPresent(event.cid());
+        if (index == null) {
+            return;
+        }
+        if (event.patient() == null) {
+            index.remove(event.id());
+        } else {
+            index.put(event.patient());
+        }
+    }
+
+    private final class TenantIndex {
+        private volatile Snapshot base;
+        private volatile long loadedAt;
+        private final ConcurrentHashMap<Long, PatientSummaryDto> upserts = new ConcurrentHashMap<>();
+        private final Set<Long> removed = ConcurrentHashMap.newKeySet();
+        // Held by whichever of compaction or reload is replacing the snapshot
+        private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+        void ensureLoaded(String cid) {
+            if (base != null) {
+                return;
+            }
+            synchronized (this) {
+                if (base == null) {
+                    long start = System.nanoTime();
+                    Snapshot snapshot = Snapshot.build(patientRepository.findSummariesByCid(cid));
+                    // Stamped first: a search that sees the snapshot must not take it for stale
+                    loadedAt = System.nanoTime();
+                    base = snapshot;
+                    log.info("Indexed {} patients of tenant {} in {} ms", snapshot.patients.length, cid,
+                            (loadedAt - start) / 1_000_000);
+                }
+            }
+        }
+
+        // Only the first tenant load blocks a search; later ones run off the request thread
+        void reloadIfStale(String cid) {
+            if (System.nanoTime() - loadedAt < reloadNanos || !rebuilding.compareAndSet(false, true)) {
+                return;
+            }
+            CompletableFuture.runAsync(() -> {
+                try {
+                    reload(cid);
+                } catch (RuntimeException e) {
+                    log.warn("Patient index reload of tenant {} failed: {}", cid, e.getMessage());
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        }
+
+        void put(PatientSummaryDto patient) {
+            upserts.put(patient.getId(), patient);
+            compactIfLarge();
+        }
+
+        void remove(Long id) {
+            upserts.remove(id);
+            removed.add(id);
+            compactIfLarge();
+        }
+
+        private boolean shadowed(Long id) {
+            return upserts.containsKey(id) || removed.contains(id);
+        }
+
+        Result search(Query query, int offset, int limit) {
+            Snapshot snapshot = base;
+            int keep = offset + limit;
+            PriorityQueue<Hit> top = new PriorityQueue<>(keep + 1, RANKING.reversed());
+            long total = 0;
+            boolean overlay = !upserts.isEmpty() || !removed.isEmpty();
+
+            // Only the matches are visited, so the cost follows the query's selectivity, not the tenant's size
+            int[] prefixHits = snapshot.prefixMatches(query);
+            for (int i : prefixHits) {
+                total += offerMatch(top, keep, overlay, snapshot, i, query.prefixScore(snapshot.names[i]));
+            }
+            FuzzyMatches fuzzy = snapshot.fuzzyMatches(query);
+            for (int m = 0; m < fuzzy.owners().length; m++) {
+                int i = fuzzy.owners()[m];
+                if (Arrays.binarySearch(prefixHits, i) < 0) {
+                    double score = query.fuzzyScore(fuzzy.shared()[m], snapshot.gramCounts[i]);
+                    total += offerMatch(top, keep, overlay, snapshot, i, score);
+                }
+            }
+            for (PatientSummaryDto patient : upserts.values()) {
+                Document doc = new Document(patient);
+                double score = query.score(doc);
+                if (score > 0) {
+                    total++;
+                    offer(top, new Hit(patient, doc.name, score), keep);
+                }
+            }
+
+            List<Hit> ranked = new ArrayList<>(top);
+            ranked.sort(RANKING);
+            List<PatientSummaryDto> page = new ArrayList<>();
+            for (int i = offset; i < ranked.size(); i++) {
+                page.add(ranked.get(i).patient());
+            }
+            return new Result(page, total);
+        }
+
+        // Offers a snapshot match unless the overlay replaced or removed it; returns how many were counted
+        private int offerMatch(PriorityQueue<Hit> top, int keep, boolean overlay, Snapshot snapshot, int i, double score) {
+            PatientSummaryDto patient = snapshot.patients[i];
+            if (overlay && shadowed(patient.getId())) {
+                return 0;
+            }
+            offer(top, new Hit(patient, snapshot.names[i], score), keep);
+            return 1;
+        }
+
+        // Folds the overlay into a fresh snapshot off the request thread once it is no longer small
+        private void compactIfLarge() {
+            Snapshot snapshot = base;
+            if (snapshot == null) {
+                return;
+            }
+            int threshold = Math.max(1000, snapshot.patients.length / 20);
+            if (upserts.size() + removed.size() < threshold || !rebuilding.compareAndSet(false, true)) {
+                return;
+            }
+            CompletableFuture.runAsync(() -> {
+                try {
+                    compact();
+                } catch (RuntimeException e) {
+                    log.warn("Patient index compaction failed: {}", e.getMessage());
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        }
+
+        private void reload(String cid) {
+            // Copied first: these writes had committed, so the query below sees them
+            Map<Long, PatientSummaryDto> folded = new HashMap<>(upserts);
+            Set<Long> dropped = new HashSet<>(removed);
+            long start = System.nanoTime();
+            base = Snapshot.build(patientRepository.findSummariesByCid(cid));
+            loadedAt = System.nanoTime();
+            folded.forEach((id, patient) -> upserts.remove(id, patient));
+            removed.removeAll(dropped);
+            log.info("Reindexed {} patients of tenant {} in {} ms", base.patients.length, cid,
+                    (loadedAt - start) / 1_000_000);
+        }
+
+        private void compact() {
+            Snapshot snapshot = base;
+            Map<Long, PatientSummaryDto> folded = new HashMap<>(upserts);
+            Set<Long> dropped = new HashSet<>(removed);
+            List<PatientSummaryDto> merged = new ArrayList<>(snapshot.patients.length + folded.size());
+            for (PatientSummaryDto patient : snapshot.patients) {
+                if (!folded.containsKey(patient.getId()) && !dropped.contains(patient.getId())) {
+                    merged.add(patient);
+                }
+            }
+            merged.addAll(folded.values());
+            // Published before the overlay is trimmed, so a search never misses a folded entry
+            base = Snapshot.build(merged);
+            // Only entries not overwritten since the copy; a newer version stays in the overlay
+            folded.forEach((id, patient) -> upserts.remove(id, patient));
+            removed.removeAll(dropped);
+        }
+    }
+
+    private static void offer(PriorityQueue<Hit> top, Hit hit, int keep) {
+        top.add(hit);
+        if (top.size() > keep) {
+            top.poll();
+        }
+    }
+
+    private record Hit(PatientSummaryDto patient, String sortName, double score) {
+    }
+
+    // Snapshot positions in ascending order, each with how many of the query's trigrams it shares
+    private record FuzzyMatches(int[] owners, int[] shared) {
+        static final FuzzyMatches NONE = new FuzzyMatches(new int[0], new int[0]);
+    }
+
+    /** Immutable index over a tenant's patients, built in one pass and replaced wholesale. */
+    private static final class Snapshot {
+        private static final int[] NO_OWNERS = new int[0];
+
+        final PatientSummaryDto[] patients;
+        final String[] names;
+        final String[] contacts;
+        final int[] gramCounts;
+        // Every name word and contact, sorted, with the patient each came from
+        final String[] tokens;
+        final int[] tokenOwners;
+        final Map<Long, int[]> postings;
+
+        private Snapshot(PatientSummaryDto[] patients, String[] names, String[] contacts, int[] gramCounts,
+                String[] tokens, int[] tokenOwners, Map<Long, int[]> postings) {
+            this.patients = patients;
+            this.names = names;
+            this.contacts = contacts;
+            this.gramCounts = gramCounts;
+            this.tokens = tokens;
+            this.tokenOwners = tokenOwners;
+            this.postings = postings;
+        }
+
+        static Snapshot build(Collection<PatientSummaryDto> source) {
+            PatientSummaryDto[] patients = source.toArray(PatientSummaryDto[]::new);
+            int n = patients.length;
+            String[] names = new String[n];
+            String[] contacts = new String[n];
+            int[] gramCounts = new int[n];
+            List<TokenEntry> entries = new ArrayList<>(n * 3);
+            Map<Long, IntList> lists = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                Document doc = new Document(patients[i]);
+                names[i] = doc.name;
+                contacts[i] = doc.contact;
+                for (String token : doc.tokens) {
+                    entries.add(new TokenEntry(token, i));
+                }
+                gramCounts[i] = doc.grams.length;
+                for (long gram : doc.grams) {
+                    lists.computeIfAbsent(gram, g -> new IntList()).add(i);
+                }
+            }
+            entries.sort(Comparator.comparing(TokenEntry::token));
+            String[] tokens = new String[entries.size()];
+            int[] owners = new int[entries.size()];
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = entries.get(i).token();
+                owners[i] = entries.get(i).owner();
+            }
+            Map<Long, int[]> postings = new HashMap<>(lists.size() * 2);
+            lists.forEach((gram, list) -> postings.put(gram, list.toArray()));
+            return new Snapshot(patients, names, contacts, gramCounts, tokens, owners, postings);
+        }
+
+        // Sorted positions of patients whose words cover every query word as a prefix, or whose contact starts with the query
+        int[] prefixMatches(Query query) {
+            IntList hits = new IntList();
+            if (!query.words.isEmpty()) {
+                // Scanning the longest word's range keeps the candidate set smallest
+                String anchor = query.words.stream().max(Comparator.comparingInt(String::length)).get();
+                for (int t = lowerBound(anchor); t < tokens.length && tokens[t].startsWith(anchor); t++) {
+                    int owner = tokenOwners[t];
+                    if (query.wordsMatch(names[owner], contacts[owner])) {
+                        hits.add(owner);
+                    }
+                }
+            }
+            if (query.contact.length() >= 3 && !query.contact.equals(query.name)) {
+                for (int t = lowerBound(query.contact); t < tokens.length && tokens[t].startsWith(query.contact); t++) {
+                    int owner = tokenOwners[t];
+                    if (contacts[owner].startsWith(query.contact)) {
+                        hits.add(owner);
+                    }
+                }
+            }
+            return hits.toSortedDistinctArray();
+        }
+
+        /**
+         * Patients sharing at least {@link Query#minSharedTrigrams()} of the query's k trigrams. Such
+         * a patient is missing from at most k - min of the posting lists, so it appears in one of
+         * the k - min + 1 shortest: only those are scanned for candidates, and each candidate is then
+         * counted against every list by binary search (the lists are in snapshot order).
+         */
+        FuzzyMatches fuzzyMatches(Query query) {
+            int k = query.grams.length;
+            if (k == 0) {
+                return FuzzyMatches.NONE;
+            }
+            int[][] lists = new int[k][];
+            for (int g = 0; g < k; g++) {
+                lists[g] = postings.getOrDefault(query.grams[g], NO_OWNERS);
+            }
+            Arrays.sort(lists, Comparator.comparingInt((int[] list) -> list.length));
+            int minShared = query.minSharedTrigrams();
+            IntList candidates = new IntList();
+            for (int g = 0; g <= k - minShared; g++) {
+                for (int owner : lists[g]) {
+                    candidates.add(owner);
+                }
+            }
+            IntList owners = new IntList();
+            IntList shared = new IntList();
+            for (int owner : candidates.toSortedDistinctArray()) {
+                int count = 0;
+                for (int[] list : lists) {
+                    if (Arrays.binarySearch(list, owner) >= 0) {
+                        count++;
+                    }
+                }
+                if (count >= minShared) {
+                    owners.add(owner);
+                    shared.add(count);
+                }
+            }
+            return new FuzzyMatches(owners.toArray(), shared.toArray());
+        }
+
+        private int lowerBound(String key) {
+            int low = 0;
+            int high = tokens.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (tokens[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private record TokenEntry(String token, int owner) {
+    }
+
+    /** A patient's normalized name, contact, words and distinct trigrams. */
+    private static final class Document {
+        final String name;
+        final String contact;
+        final List<String> tokens;
+        final long[] grams;
+
+        Document(PatientSummaryDto patient) {
+            this.name = normalize(patient.getName());
+            this.contact = normalizeContact(patient.getContact());
+            this.tokens = words(name);
+            if (!contact.isEmpty()) {
+                tokens.add(contact);
+            }
+            this.grams = trigrams(tokens);
+        }
+    }
+
+    private static final class Query {
+        final String name;
+        final String contact;
+        final List<String> words;
+        final long[] grams;
+
+        Query(String text) {
+            this.name = normalize(text);
+            this.contact = normalizeContact(text);
+            this.words = words(name);
+            this.grams = trigrams(words);
+        }
+
+        int minSharedTrigrams() {
+            return Math.max(1, (int) Math.ceil(grams.length * MIN_TRIGRAM_SHARE));
+        }
+
+        boolean wordsMatch(String docName, String docContact) {
+            List<String> docWords = words(docName);
+            if (!docContact.isEmpty()) {
+                docWords.add(docContact);
+            }
+            for (String word : words) {
+                if (docWords.stream().noneMatch(token -> token.startsWith(word))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Prefix matches score from 1, with a bonus for the name starting with or equalling the query
+        double prefixScore(String docName) {
+            if (docName.equals(name)) {
+                return 2;
+            }
+            return docName.startsWith(name) ? 1.5 : 1;
+        }
+
+        // Below every prefix match: how much of the query is covered, then how close the lengths are
+        double fuzzyScore(int shared, int docGrams) {
+            double coverage = (double) shared / grams.length;
+            double dice = 2.0 * shared / (grams.length + docGrams);
+            return 0.9 * coverage + 0.09 * dice;
+        }
+
+        // Scores a single overlay document without the snapshot's indexes
+        double score(Document doc) {
+            boolean contactPrefix = contact.length() >= 3 && doc.contact.startsWith(contact);
+            if ((!words.isEmpty() && wordsMatch(doc.name, doc.contact)) || contactPrefix) {
+                return prefixScore(doc.name);
+            }
+            if (grams.length == 0) {
+                return 0;
+            }
+            int shared = 0;
+            for (long gram : grams) {
+                if (Arrays.binarySearch(doc.grams, gram) >= 0) {
+                    shared++;
+                }
+            }
+            return shared >= minSharedTrigrams() ? fuzzyScore(shared, doc.grams.length) : 0;
+        }
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    // Contacts compare on letters and digits only, so "+1 (555) 010-2030" matches "5550102"
+    private static String normalizeContact(String text) {
+        return normalize(text).replace(" ", "");
+    }
+
+    private static List<String> words(String normalized) {
+        List<String> words = new ArrayList<>();
+        for (String word : normalized.split(" ")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    // Sorted distinct trigrams of each word padded like pg_trgm ("  ab" ... "b "), packed into longs
+    private static long[] trigrams(List<String> words) {
+        List<Long> grams = new ArrayList<>();
+        for (String word : words) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+            }
+        }
+        return grams.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        int[] toSortedDistinctArray() {
+            int[] sorted = toArray();
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (distinct == 0 || sorted[distinct - 1] != sorted[i]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            return Arrays.copyOf(sorted, distinct);
+        }
+    }
+}
@@ -2,34 +2,79 @@ package com.hms.hospital.service;
 
 import com.hms.common.exception.ResourceNotFoundException;
 import com.hms.hospital.dto.PatientDto;
+import com.hms.hospital.dto.PatientPageDto;
+import com.hms.hospital.dto.PatientSummaryDto;
 import com.hms.hospital.entity.Patient;
 import com.hms.hospital.repository.PatientRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Service
 public class PatientService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    // Deep pages of a ranked search are not useful and would make every lookup keep more hits
+    private static final int MAX_SEARCH_WINDOW = 1000;
+
     private final PatientRepository patientRepository;
+    private final PatientSearchIndex searchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public PatientService(PatientRepository patientRepository) {
+    public PatientService(PatientRepository patientRepository, PatientSearchIndex searchIndex,
+            ApplicationEventPublisher eventPublisher) {
         this.patientRepository = patientRepository;
+        this.searchIndex = searchIndex;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // The medical history is left out of lists and loaded by getById only
+    public List<PatientSummaryDto> getByCid(String cid) {
+        validateCid(cid);
+        return patientRepository.findSummariesByCid(cid);
     }
 
-    public List<Patient> getByCid(String cid) {
+    /**
+     * Pages through the tenant's patients without their medical history. With a query, results are
+     * ranked by prefix and fuzzy matches on name and contact; without one, they are listed by name.
+     */
+    public PatientPageDto search(String cid, String query, int page, int size) {
         validateCid(cid);
-        return patientRepository.findByCid(cid);
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (query == null || query.isBlank()) {
+            Slice<PatientSummaryDto> slice = patientRepository.findSummariesByCid(cid, PageRequest.of(page, size));
+            return new PatientPageDto(slice.getContent(), page, size, slice.hasNext(), null);
+        }
+        int offset = page * size;
+        if (offset + size > MAX_SEARCH_WINDOW) {
+            throw new IllegalArgumentException("Search results are limited to the first " + MAX_SEARCH_WINDOW
+                    + " matches, please refine the query");
+        }
+        PatientSearchIndex.Result result = searchIndex.search(cid, query, offset, size);
+        return new PatientPageDto(result.content(), page, size,
+                result.totalMatches() > offset + size, result.totalMatches());
     }
 
-    public Patient getById(Long id) {
+    // Transactional so the lazy medical history loads before the entity is detached
+    @Transactional(readOnly = true)
+    public PatientDto getById(Long id) {
+        return toDto(find(id));
+    }
+
+    private Patient find(Long id) {
         Patient patient = patientRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Patient", id));
         validateCid(patient.getCid());
         return patient;
     }
 
-    public Patient create(PatientDto dto) {
+    public PatientDto create(PatientDto dto) {
         Patient patient = Patient.builder()
                 .cid(dto.getCid())
                 .name(dto.getName())
@@ -39,23 +84,51 @@ public class PatientService {
                 .medicalHistory(dto.getMedicalHistory())
                 .hospitalId(dto.getHospitalId())
                 .build();
-        return patientRepository.save(patient);
+        Patient saved = patientRepository.save(patient);
+        eventPublisher.publishEvent(PatientChangedEvent.saved(saved.getCid(), toSummary(saved)));
+        eventPublisher.publishEvent(new TenantDataChangedEvent(saved.getCid(),
+                TenantDataChangedEvent.Type.PATIENTS));
+        return toDto(saved);
     }
 
-    public Patient update(Long id, PatientDto dto) {
-        Patient patient = getById(id);
+    @Transactional
+    public PatientDto update(Long id, PatientDto dto) {
+        Patient patient = find(id);
         patient.setName(dto.getName());
         patient.setAge(dto.getAge());
         patient.setGender(dto.getGender());
         patient.setContact(dto.getContact());
         patient.setMedicalHistory(dto.getMedicalHistory());
         patient.setHospitalId(dto.getHospitalId());
-        return patientRepository.save(patient);
+        Patient saved = patientRepository.save(patient);
+        eventPublisher.publishEvent(PatientChangedEvent.saved(saved.getCid(), toSummary(saved)));
+        return toDto(saved);
     }
 
     public void delete(Long id) {
-        getById(id);
+        Patient patient = find(id);
         patientRepository.deleteById(id);
+        eventPublisher.publishEvent(PatientChangedEvent.deleted(patient.getCid(), id));
+        eventPublisher.publishEvent(new TenantDataChangedEvent(patient.getCid(),
+                TenantDataChangedEvent.Type.PATIENTS));
+    }
+
+    private static PatientDto toDto(Patient patient) {
+        PatientDto dto = new PatientDto();
+        dto.setId(patient.getId());
+        dto.setCid(patient.getCid());
+        dto.setName(patient.getName());
+        dto.setAge(patient.getAge());
+        dto.setGender(patient.getGender());
+        dto.setContact(patient.getContact());
+        dto.setMedicalHistory(patient.getMedicalHistory());
+        dto.setHospitalId(patient.getHospitalId());
+        return dto;
+    }
+
+    private static PatientSummaryDto toSummary(Patient patient) {
+        return new PatientSummaryDto(patient.getId(), patient.getName(), patient.getAge(), patient.getGender(),
+                patient.getContact(), patient.getHospitalId());
     }
 
     private void validateCid(String cid) {
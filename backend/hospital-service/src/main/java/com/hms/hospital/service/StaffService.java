@@ -7,6 +7,7 @@ import com.hms.hospital.repository.StaffRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class StaffService {
@@ -17,41 +18,57 @@ public class StaffService {
         this.staffRepository = staffRepository;
     }
 
-    public List<Staff> getByCid(String cid) {
+    public List<StaffDto> getByCid(String cid) {
         validateCid(cid);
-        return staffRepository.findByCid(cid);
+        return staffRepository.findByCid(cid).stream()
+                .map(StaffService::toDto)
+                .collect(Collectors.toList());
     }
 
-    public Staff getById(Long id) {
+    public StaffDto getById(Long id) {
+        return toDto(find(id));
+    }
+
+    private Staff find(Long id) {
         Staff staff = staffRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Staff", id));
         validateCid(staff.getCid());
         return staff;
     }
 
-    public Staff create(StaffDto dto) {
+    public StaffDto create(StaffDto dto) {
         Staff staff = Staff.builder()
                 .cid(dto.getCid())
                 .name(dto.getName())
                 .role(dto.getRole())
                 .contact(dto.getContact())
                 .build();
-        return staffRepository.save(staff);
+        return toDto(staffRepository.save(staff));
     }
 
-    public Staff update(Long id, StaffDto dto) {
-        Staff staff = getById(id);
+    public StaffDto update(Long id, StaffDto dto) {
+        Staff staff = find(id);
         staff.setName(dto.getName());
         staff.setRole(dto.getRole());
         staff.setContact(dto.getContact());
-        return staffRepository.save(staff);
+        return toDto(staffRepository.save(staff));
     }
 
     public void delete(Long id) {
-        getById(id);
+        find(id);
         staffRepository.deleteById(id);
     }
 
+    private static StaffDto toDto(Staff staff) {
+        StaffDto dto = new StaffDto();
+        dto.setId(staff.getId());
+        dto.setCid(staff.getCid());
+        dto.setName(staff.getName());
+        dto.setRole(staff.getRole());
+        dto.setContact(staff.getContact());
+        return dto;
+    }
+
     private void validateCid(String cid) {
         if (!com.hms.common.security.SecurityUtils.isSuperAdmin()) {
             String currentCid = com.hms.common.security.SecurityUtils.getCurrentCid();
@@ -0,0 +1,24 @@
+package com.hms.hospital.service;
+
+/**
+ * A stock movement that will never apply as sent. Returned as 409 or 422 so callers such as the
+ * appointment-service outbox can tell it apart from failures worth retrying.
+ */
+public class StockMovementRejectedException extends RuntimeException {
+
+    public enum Reason {
+        UNKNOWN_MEDICINE,
+        INSUFFICIENT_STOCK
+    }
+
+    private final Reason reason;
+
+    public StockMovementRejectedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,14 @@
+package com.hms.hospital.service;
+
+/**
+ * Published after a tenant's patients, doctors or stock change, so cached dashboard figures can
+ * follow. Patients and doctors publish on create and delete, stock on every quantity change.
+ */
+public record TenantDataChangedEvent(String cid, Type type) {
+
+    public enum Type {
+        PATIENTS,
+        DOCTORS,
+        STOCK
+    }
+}
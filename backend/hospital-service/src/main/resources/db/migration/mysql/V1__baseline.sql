@@ -0,0 +1,63 @@
+-- Tables as previously created by ddl-auto=update; no-op on databases that already have them
+CREATE TABLE IF NOT EXISTS hospitals (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    cid VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    address VARCHAR(255),
+    contact VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_hospitals_cid UNIQUE (cid)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS doctors (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    cid VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    specialization VARCHAR(255),
+    contact VARCHAR(255),
+    availability VARCHAR(255),
+    hospital_id BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS patients (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    cid VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    age INTEGER,
+    gender VARCHAR(255),
+    contact VARCHAR(255),
+    medical_history TEXT,
+    hospital_id BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS staff (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    cid VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    role VARCHAR(255),
+    contact VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS medicine_stock (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    cid VARCHAR(255) NOT NULL,
+    medicine_name VARCHAR(255) NOT NULL,
+    normalized_name VARCHAR(255),
+    quantity INTEGER,
+    expiry_date DATE,
+    supplier VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_medicine_stock_cid_normalized_name UNIQUE (cid, normalized_name)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS stock_movement_receipts (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    idempotency_key VARCHAR(64) NOT NULL,
+    cid VARCHAR(255) NOT NULL,
+    processed_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_stock_movement_receipts_key UNIQUE (idempotency_key)
+) ENGINE = InnoDB;
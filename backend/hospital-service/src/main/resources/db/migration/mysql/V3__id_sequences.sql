@@ -0,0 +1,20 @@
+-- Pooled id generators (allocationSize = 50). MySQL has no sequences, so Hibernate keeps each
+-- one in a single-row table; next_val starts past the ids already handed out by AUTO_INCREMENT
+
+CREATE TABLE hospitals_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO hospitals_seq (next_val) SELECT COALESCE(MAX(id), 0) + 100 FROM hospitals;
+
+CREATE TABLE doctors_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO doctors_seq (next_val) SELECT COALESCE(MAX(id), 0) + 100 FROM doctors;
+
+CREATE TABLE patients_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO patients_seq (next_val) SELECT COALESCE(MAX(id), 0) + 100 FROM patients;
+
+CREATE TABLE staff_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO staff_seq (next_val) SELECT COALESCE(MAX(id), 0) + 100 FROM staff;
+
+CREATE TABLE medicine_stock_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO medicine_stock_seq (next_val) SELECT COALESCE(MAX(id), 0) + 100 FROM medicine_stock;
+
+CREATE TABLE stock_movement_receipts_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO stock_movement_receipts_seq (next_val) SELECT COALESCE(MAX(id), 0) + 100 FROM stock_movement_receipts;
@@ -0,0 +1,2 @@
+-- Patient directory browsing (PatientRepository.findSummariesByCid), ordered by name
+CREATE INDEX idx_patients_cid_name ON patients (cid, name, id);
@@ -0,0 +1,31 @@
+-- medicine_stock tables created by ddl-auto before normalized_name existed kept their old shape,
+-- since V1 only creates missing tables. Add the column and unique key where they are missing
+
+SET @has_column = (SELECT COUNT(*) FROM information_schema.columns
+                   WHERE table_schema = DATABASE() AND table_name = 'medicine_stock'
+                     AND column_name = 'normalized_name');
+SET @ddl = IF(@has_column = 0, 'ALTER TABLE medicine_stock ADD COLUMN normalized_name VARCHAR(255)', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Key the oldest row of each tenant and name, the one stock movements already resolved to.
+-- Later duplicates stay NULL (the unique key allows that) until renamed or merged
+UPDATE medicine_stock m
+JOIN (SELECT MIN(s.id) AS id
+      FROM medicine_stock s
+      WHERE s.normalized_name IS NULL
+        AND NOT EXISTS (SELECT 1 FROM medicine_stock k
+                        WHERE k.cid = s.cid AND k.normalized_name = LOWER(TRIM(s.medicine_name)))
+      GROUP BY s.cid, LOWER(TRIM(s.medicine_name))) oldest ON oldest.id = m.id
+SET m.normalized_name = LOWER(TRIM(m.medicine_name));
+
+SET @has_key = (SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'medicine_stock'
+                  AND index_name = 'uk_medicine_stock_cid_normalized_name');
+SET @ddl = IF(@has_key = 0,
+              'ALTER TABLE medicine_stock ADD CONSTRAINT uk_medicine_stock_cid_normalized_name UNIQUE (cid, normalized_name)',
+              'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,12 @@
+-- DoctorRepository.findByCid / countByCid
+CREATE INDEX IF NOT EXISTS idx_doctors_cid ON doctors (cid);
+
+-- PatientRepository.findByCid / countByCid
+CREATE INDEX IF NOT EXISTS idx_patients_cid ON patients (cid);
+
+-- StaffRepository.findByCid
+CREATE INDEX IF NOT EXISTS idx_staff_cid ON staff (cid);
+
+-- MedicineStockRepository.findByCidAndQuantityLessThan (low-stock list);
+-- findByCid and the name lookups use uk_medicine_stock_cid_normalized_name
+CREATE INDEX IF NOT EXISTS idx_medicine_stock_cid_quantity ON medicine_stock (cid, quantity);
@@ -0,0 +1,20 @@
+-- Pooled id generators (allocationSize = 50); each sequence starts past the ids already
+-- handed out by the identity columns
+
+CREATE SEQUENCE IF NOT EXISTS hospitals_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('hospitals_seq', (SELECT COALESCE(MAX(id), 0) + 100 FROM hospitals));
+
+CREATE SEQUENCE IF NOT EXISTS doctors_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('doctors_seq', (SELECT COALESCE(MAX(id), 0) + 100 FROM doctors));
+
+CREATE SEQUENCE IF NOT EXISTS patients_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('patients_seq', (SELECT COALESCE(MAX(id), 0) + 100 FROM patients));
+
+CREATE SEQUENCE IF NOT EXISTS staff_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('staff_seq', (SELECT COALESCE(MAX(id), 0) + 100 FROM staff));
+
+CREATE SEQUENCE IF NOT EXISTS medicine_stock_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('medicine_stock_seq', (SELECT COALESCE(MAX(id), 0) + 100 FROM medicine_stock));
+
+CREATE SEQUENCE IF NOT EXISTS stock_movement_receipts_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('stock_movement_receipts_seq', (SELECT COALESCE(MAX(id), 0) + 100 FROM stock_movement_receipts));
@@ -0,0 +1,18 @@
+-- medicine_stock tables created by ddl-auto before normalized_name existed kept their old shape,
+-- since V1 only creates missing tables. Add the column and unique key where they are missing
+
+ALTER TABLE medicine_stock ADD COLUMN IF NOT EXISTS normalized_name VARCHAR(255);
+
+-- Key the oldest row of each tenant and name, the one stock movements already resolved to.
+-- Later duplicates stay NULL (the unique key allows that) until renamed or merged
+UPDATE medicine_stock m
+SET normalized_name = LOWER(TRIM(m.medicine_name))
+WHERE m.id IN (SELECT MIN(s.id)
+               FROM medicine_stock s
+               WHERE s.normalized_name IS NULL
+               GROUP BY s.cid, LOWER(TRIM(s.medicine_name)))
+  AND NOT EXISTS (SELECT 1 FROM medicine_stock k
+                  WHERE k.cid = m.cid AND k.normalized_name = LOWER(TRIM(m.medicine_name)));
+
+-- Skipped when V1 created the table: the constraint's index already has this name
+CREATE UNIQUE INDEX IF NOT EXISTS uk_medicine_stock_cid_normalized_name ON medicine_stock (cid, normalized_name);
@@ -0,0 +1,103 @@
+package com.hms.hospital.repository;
+
+import com.hms.common.test.QueryPlans;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The hot tenant-scoped queries must be served by the indexes the migrations create. Runs once per
+ * vendor through {@link MySqlTenantIndexTest} and {@link PostgresTenantIndexTest}; the SQL mirrors
+ * what Hibernate generates for the repository methods named on each test.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Testcontainers(disabledWithoutDocker = true)
+abstract class TenantIndexTest {
+
+    private static final int TENANTS = 20;
+    private static final int ROWS_PER_TENANT = 25;
+    // One of the seeded tenants; inlined so the plans need no bind parameters
+    private static final String CID = "'IDX07'";
+    // Explicit ids far above what the pooled generators hand out to other tests on the same database
+    private static final long FIRST_ID = 900_000_000L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> named = new ArrayList<>();
+        List<Object[]> medicines = new ArrayList<>();
+        long id = FIRST_ID;
+        for (int t = 0; t < TENANTS; t++) {
+            String cid = String.format("IDX%02d", t);
+            for (int i = 0; i < ROWS_PER_TENANT; i++, id++) {
+                named.add(new Object[]{id, cid, "Name " + i});
+                medicines.add(new Object[]{id, cid, "Medicine " + i, "medicine " + i, i * 2});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO doctors (id, cid, name) VALUES (?, ?, ?)", named);
+        jdbcTemplate.batchUpdate("INSERT INTO patients (id, cid, name) VALUES (?, ?, ?)", named);
+        jdbcTemplate.batchUpdate("INSERT INTO staff (id, cid, name) VALUES (?, ?, ?)", named);
+        jdbcTemplate.batchUpdate("INSERT INTO medicine_stock (id, cid, medicine_name, normalized_name, quantity) "
+                + "VALUES (?, ?, ?, ?, ?)", medicines);
+        QueryPlans.analyze(jdbcTemplate, "doctors", "patients", "staff", "medicine_stock");
+    }
+
+    // DoctorRepository.findByCid / countByCid
+    @Test
+    void doctorsByTenant() {
+        assertUsesIndex("SELECT * FROM doctors WHERE cid = " + CID, "idx_doctors_cid");
+        assertUsesIndex("SELECT COUNT(*) FROM doctors WHERE cid = " + CID, "idx_doctors_cid");
+    }
+
+    // PatientRepository.countByCid; either cid-leading index answers it
+    @Test
+    void patientCountByTenant() {
+        assertUsesIndex("SELECT COUNT(*) FROM patients WHERE cid = " + CID,
+                "idx_patients_cid", "idx_patients_cid_name");
+    }
+
+    // PatientRepository.findSummariesByCid(cid, pageable): name order straight from the index
+    @Test
+    void patientDirectoryPage() {
+        assertUsesIndex("SELECT id, name, age, gender, contact, hospital_id FROM patients WHERE cid = " + CID
+                + " ORDER BY name, id LIMIT 21", "idx_patients_cid_name");
+    }
+
+    // StaffRepository.findByCid
+    @Test
+    void staffByTenant() {
+        assertUsesIndex("SELECT * FROM staff WHERE cid = " + CID, "idx_staff_cid");
+    }
+
+    // MedicineStockRepository.findByCidAndQuantityLessThan / countByCidAndQuantityLessThan
+    @Test
+    void lowStockByTenant() {
+        assertUsesIndex("SELECT * FROM medicine_stock WHERE cid = " + CID + " AND quantity < 10",
+                "idx_medicine_stock_cid_quantity");
+        assertUsesIndex("SELECT COUNT(*) FROM medicine_stock WHERE cid = " + CID + " AND quantity < 10",
+                "idx_medicine_stock_cid_quantity");
+    }
+
+    // MedicineStockRepository.findByCidAndNormalizedNameIn / existsByCidAndNormalizedName
+    @Test
+    void medicineLookupByName() {
+        assertUsesIndex("SELECT * FROM medicine_stock WHERE cid = " + CID
+                + " AND normalized_name IN ('medicine 1', 'medicine 2')", "uk_medicine_stock_cid_normalized_name");
+    }
+
+    private void assertUsesIndex(String sql, String... indexes) {
+        assertThat(QueryPlans.explain(jdbcTemplate, sql)).as(sql).containsAnyOf(indexes);
+    }
+}
@@ -0,0 +1,84 @@
+package com.hms.hospital.service;
+
+import com.hms.hospital.dto.PatientSummaryDto;
+import com.hms.hospital.repository.PatientRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Latency of one {@link PatientSearchIndex#search} over a single tenant of {@code patients}
+ * synthetic patients, against the target of under 20 ms per keystroke at a million patients.
+ * The queries cover a short and a two-word prefix, a misspelling that only the trigram match
+ * finds, and a contact prefix. Run with {@code mvn -pl hospital-service test-compile exec:exec
+ * -Djmh.include=PatientSearchBenchmark} once {@code common} is installed, or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class PatientSearchBenchmark {
+
+    private static final String CID = "BENCH";
+    private static final String[] FIRST = {"Maria", "James", "Aisha", "Jonathan", "Wei", "Olga", "Rahul",
+            "Fatima", "Lucas", "Amara", "Noah", "Ingrid", "Kenji", "Zephyr", "Priya", "Mateo"};
+    private static final String[] LAST = {"Gonzalez", "Okafor", "Smith", "Nakamura", "Ivanova", "Patel",
+            "Schmidt", "Haddad", "Silva", "Kowalski", "Nguyen", "Johansson", "Mensah", "Rossi"};
+
+    @Param("1000000")
+    public int patients;
+
+    @Param({"mar", "maria gon", "jonathon okafr", "555012"})
+    public String query;
+
+    private PatientSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<PatientSummaryDto> rows = new ArrayList<>(patients);
+        for (long id = 1; id <= patients; id++) {
+            String name = FIRST[random.nextInt(FIRST.length)] + " " + LAST[random.nextInt(LAST.length)]
+                    + " " + Long.toString(id, 36);
+            String contact = String.format("555%07d", random.nextInt(10_000_000));
+            rows.add(new PatientSummaryDto(id, name, 20 + random.nextInt(60), "Female", contact, 1L));
+        }
+        PatientRepository repository = mock(PatientRepository.class);
+        when(repository.findSummariesByCid(CID)).thenReturn(rows);
+        index = new PatientSearchIndex(repository, 1, 120, 60);
+        // Builds the snapshot, which is not what is being measured
+        index.search(CID, query, 0, 20);
+    }
+
+    @Benchmark
+    public PatientSearchIndex.Result search() {
+        return index.search(CID, query, 0, 20);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PatientSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
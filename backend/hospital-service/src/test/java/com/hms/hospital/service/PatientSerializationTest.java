@@ -0,0 +1,98 @@
+package com.hms.hospital.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.common.test.TestAuth;
+import com.hms.common.test.TestDatabases;
+import com.hms.hospital.dto.PatientDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Patient responses are DTOs mapped inside the service: with open-in-view off, writing them must
+ * neither hit a detached lazy medical history nor issue SQL, and lists must leave it out.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Testcontainers(disabledWithoutDocker = true)
+class PatientSerializationTest {
+
+    private static final String HISTORY = "Asthma since childhood. ".repeat(50);
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabases.mysql(registry);
+    }
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void listsSerializeWithoutTheMedicalHistory() throws Exception {
+        PatientDto patient = seed();
+        String cid = patient.getCid();
+
+        JsonNode list = serialize(patientService.getByCid(cid));
+        JsonNode page = serialize(patientService.search(cid, null, 0, 10)).get("content");
+        JsonNode matches = serialize(patientService.search(cid, "zephyr", 0, 10)).get("content");
+
+        for (JsonNode rows : new JsonNode[] {list, page, matches}) {
+            assertThat(rows).hasSize(1);
+            assertThat(rows.get(0).get("id").asLong()).isEqualTo(patient.getId());
+            assertThat(rows.get(0).has("medicalHistory")).isFalse();
+        }
+    }
+
+    @Test
+    void detailSerializesTheMedicalHistoryLoadedInTheService() throws Exception {
+        PatientDto patient = seed();
+
+        JsonNode detail = serialize(patientService.getById(patient.getId()));
+
+        assertThat(detail.get("medicalHistory").asText()).isEqualTo(HISTORY);
+    }
+
+    // The service call has returned and its transaction is over; writing the JSON must not reach the database
+    private JsonNode serialize(Object response) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        String json = objectMapper.writeValueAsString(response);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        return objectMapper.readTree(json);
+    }
+
+    private PatientDto seed() {
+        String cid = "T" + UUID.randomUUID().toString().substring(0, 8);
+        TestAuth.signIn("ADMIN", cid);
+        PatientDto dto = new PatientDto();
+        dto.setCid(cid);
+        dto.setName("Zephyr Okafor");
+        dto.setAge(41);
+        dto.setGender("Male");
+        dto.setContact("5550102030");
+        dto.setMedicalHistory(HISTORY);
+        return patientService.create(dto);
+    }
+}
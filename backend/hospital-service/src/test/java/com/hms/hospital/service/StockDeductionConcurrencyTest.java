@@ -0,0 +1,153 @@
+package com.hms.hospital.service;
+
+import com.hms.common.test.TestAuth;
+import com.hms.common.test.TestDatabases;
+import com.hms.hospital.dto.MedicineStockDto;
+import com.hms.hospital.dto.StockMovementRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many concurrent movements against one medicine: the conditional decrement must never take
+ * stock below zero and must not lose updates, so every accepted deduction is accounted for.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class StockDeductionConcurrencyTest {
+
+    // Below the default Hikari pool of 10, leaving room for Hibernate's sequence-table connection
+    private static final int THREADS = 8;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabases.mysql(registry);
+    }
+
+    @Autowired
+    private MedicineStockService medicineStockService;
+
+    @AfterEach
+    void signOut() {
+        TestAuth.signOut();
+    }
+
+    @Test
+    void concurrentDeductionsNeverOversell() throws Exception {
+        String cid = newTenant();
+        MedicineStockDto stock = createStock(cid, "Paracetamol", 50);
+
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(160, attempt -> {
+            try {
+                move(cid, "Paracetamol", -1);
+                applied.incrementAndGet();
+            } catch (StockMovementRejectedException e) {
+                assertThat(e.getReason()).isEqualTo(StockMovementRejectedException.Reason.INSUFFICIENT_STOCK);
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertThat(applied.get()).isEqualTo(50);
+        assertThat(rejected.get()).isEqualTo(110);
+        assertThat(quantity(stock)).isZero();
+    }
+
+    @Test
+    void concurrentDeductionsAndRestoresKeepTheBalance() throws Exception {
+        String cid = newTenant();
+        MedicineStockDto stock = createStock(cid, "Amoxicillin", 10);
+
+        AtomicInteger deducted = new AtomicInteger();
+        AtomicInteger restored = new AtomicInteger();
+        runConcurrently(200, attempt -> {
+            if (attempt % 2 == 0) {
+                move(cid, "amoxicillin ", 1);
+                restored.incrementAndGet();
+            } else {
+                try {
+                    move(cid, "Amoxicillin", -2);
+                    deducted.incrementAndGet();
+                } catch (StockMovementRejectedException e) {
+                    // Out of stock at that moment; must not have touched the row
+                }
+            }
+        });
+
+        assertThat(restored.get()).isEqualTo(100);
+        assertThat(quantity(stock)).isEqualTo(10 + restored.get() - 2 * deducted.get());
+    }
+
+    private void move(String cid, String medicineName, int delta) {
+        String reference = UUID.randomUUID().toString();
+        medicineStockService.applyMovements(cid,
+                List.of(new StockMovementRequest.Line(reference, medicineName, delta)));
+    }
+
+    private void runConcurrently(int attempts, Attempt attempt) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(attempts);
+            for (int i = 0; i < attempts; i++) {
+                int n = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    TestAuth.signIn("SERVICE", null);
+                    try {
+                        attempt.run(n);
+                    } finally {
+                        TestAuth.signOut();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private String newTenant() {
+        return "T" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private MedicineStockDto createStock(String cid, String name, int quantity) {
+        TestAuth.signIn("ADMIN", cid);
+        MedicineStockDto dto = new MedicineStockDto();
+        dto.setCid(cid);
+        dto.setMedicineName(name);
+        dto.setQuantity(quantity);
+        return medicineStockService.create(dto);
+    }
+
+    private int quantity(MedicineStockDto stock) {
+        TestAuth.signIn("ADMIN", stock.getCid());
+        return medicineStockService.getById(stock.getId()).getQuantity();
+    }
+
+    @FunctionalInterface
+    private interface Attempt {
+        void run(int attempt);
+    }
+}
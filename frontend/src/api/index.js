@@ -68,6 +68,7 @@ export const doctorApi = {
 // Patients
 export const patientApi = {
     getByCid: (cid) => hospitalApiInstance.get(`/api/patients?cid=${cid}`),
+    search: (cid, q, page = 0, size = 20) => hospitalApiInstance.get('/api/patients/search', { params: { cid, q, page, size } }),
     getById: (id) => hospitalApiInstance.get(`/api/patients/${id}`),
     create: (data) => hospitalApiInstance.post('/api/patients', data),
     update: (id, data) => hospitalApiInstance.put(`/api/patients/${id}`, data),
@@ -91,18 +92,29 @@ export const medicineApi = {
     update: (id, data) => hospitalApiInstance.put(`/api/medicines/${id}`, data),
     delete: (id) => hospitalApiInstance.delete(`/api/medicines/${id}`),
     getLowStock: (cid, threshold = 10) => hospitalApiInstance.get(`/api/medicines/low-stock?cid=${cid}&threshold=${threshold}`),
-    deductStock: (cid, data) => hospitalApiInstance.post(`/api/medicines/deduct?cid=${cid}`, data),
 };
 
 // Appointments
 export const appointmentApi = {
     getByCid: (cid) => appointmentApiInstance.get(`/api/appointments?cid=${cid}`),
+    getPage: (cid, params = {}) => appointmentApiInstance.get('/api/appointments/page', { params: { cid, ...params } }),
+    scroll: (cid, params = {}) => appointmentApiInstance.get('/api/appointments/scroll', { params: { cid, ...params } }),
+    export: (cid, params = {}) => appointmentApiInstance.get('/api/appointments/export', { params: { cid, ...params }, responseType: 'blob' }),
     getByDoctor: (cid, doctorId) => appointmentApiInstance.get(`/api/appointments/doctor/${doctorId}?cid=${cid}`),
+    getDoctorSchedule: (cid, doctorId, from, to) => appointmentApiInstance.get(`/api/appointments/doctor/${doctorId}/schedule`, { params: { cid, from, to } }),
     getById: (id) => appointmentApiInstance.get(`/api/appointments/${id}`),
     create: (data) => appointmentApiInstance.post('/api/appointments', data),
     update: (id, data) => appointmentApiInstance.put(`/api/appointments/${id}`, data),
     updateStatus: (id, status) => appointmentApiInstance.put(`/api/appointments/${id}/status`, { status }),
     delete: (id) => appointmentApiInstance.delete(`/api/appointments/${id}`),
+    presignImageUpload: (id, fileName, contentType) => appointmentApiInstance.post(`/api/appointments/${id}/images/presign`, { fileName, contentType }),
+    confirmImage: (id, objectKey) => appointmentApiInstance.post(`/api/appointments/${id}/images/confirm`, { objectKey }),
+    getImageUrl: (id, slot, variant) => appointmentApiInstance.get(`/api/appointments/${id}/images/${slot}/url`, { params: variant ? { variant } : {} }),
+    startUpload: (id, fileName, contentType, size) => appointmentApiInstance.post(`/api/appointments/${id}/uploads`, { fileName, contentType, size }),
+    getUpload: (id, sessionId) => appointmentApiInstance.get(`/api/appointments/${id}/uploads/${sessionId}`),
+    uploadPart: (id, sessionId, partNumber, blob) => appointmentApiInstance.put(`/api/appointments/${id}/uploads/${sessionId}/parts/${partNumber}`, blob, { headers: { 'Content-Type': 'application/octet-stream' } }),
+    completeUpload: (id, sessionId) => appointmentApiInstance.post(`/api/appointments/${id}/uploads/${sessionId}/complete`),
+    abortUpload: (id, sessionId) => appointmentApiInstance.delete(`/api/appointments/${id}/uploads/${sessionId}`),
     getStats: (cid) => appointmentApiInstance.get(`/api/appointments/stats?cid=${cid}`),
 };
 
@@ -2,7 +2,7 @@ import { useState, useEffect } from 'react';
 import Layout from '../components/Layout';
 import KpiCard from '../components/KpiCard';
 import { useAuth } from '../context/AuthContext';
-import { dashboardApi, appointmentApi } from '../api';
+import { dashboardApi } from '../api';
 import {
     HiOutlineUserGroup,
     HiOutlineHeart,
@@ -20,7 +20,6 @@ const CHART_COLORS = ['#6366f1', '#14b8a6', '#f43f5e', '#f59e0b', '#22c55e'];
 export default function AdminDashboard() {
     const { user } = useAuth();
     const [stats, setStats] = useState(null);
-    const [apptStats, setApptStats] = useState(null);
     const [loading, setLoading] = useState(true);
 
     useEffect(() => {
@@ -29,12 +28,9 @@ export default function AdminDashboard() {
 
     const loadData = async () => {
         try {
-            const [dashRes, apptRes] = await Promise.all([
-                dashboardApi.getStats(user.cid),
-                appointmentApi.getStats(user.cid),
-            ]);
-            setStats(dashRes.data.data);
-            setApptStats(apptRes.data.data);
+            // hospital-service gathers the appointment figures too, so one call fills the page
+            const res = await dashboardApi.getStats(user.cid);
+            setStats(res.data.data);
         } catch (err) {
             console.error('Failed to load dashboard:', err);
         } finally {
@@ -55,7 +51,7 @@ export default function AdminDashboard() {
     const barData = [
         { name: 'Patients', value: stats?.totalPatients || 0 },
         { name: 'Doctors', value: stats?.totalDoctors || 0 },
-        { name: 'Appointments', value: apptStats?.totalAppointments || 0 },
+        { name: 'Appointments', value: stats?.totalAppointments || 0 },
         { name: 'Low Stock', value: stats?.lowStockMedicines || 0 },
     ];
 
@@ -80,6 +76,12 @@ export default function AdminDashboard() {
                 </p>
             </div>
 
+            {stats?.unavailableSources?.length > 0 && (
+                <div className="mb-6 p-4 rounded-xl bg-amber-500/10 border border-amber-500/30 text-amber-600 text-sm">
+                    Some figures are unavailable right now ({stats.unavailableSources.join(', ')}) and show as 0.
+                </div>
+            )}
+
             {/* KPI Cards */}
             <div className="grid grid-cols-1 md:grid-cols-2 lg:grid-cols-5 gap-4 mb-8">
                 <KpiCard
@@ -96,13 +98,13 @@ export default function AdminDashboard() {
                 />
                 <KpiCard
                     title="Appointments"
-                    value={apptStats?.totalAppointments || 0}
+                    value={stats?.totalAppointments || 0}
                     icon={HiOutlineCalendar}
                     color="emerald"
                 />
                 <KpiCard
                     title="Today's Appts"
-                    value={apptStats?.todaysAppointments || 0}
+                    value={stats?.todaysAppointments || 0}
                     icon={HiOutlineClock}
                     color="amber"
                 />
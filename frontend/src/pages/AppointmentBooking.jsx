@@ -67,16 +67,22 @@ export default function AppointmentBooking() {
         } catch (err) { alert(err.response?.data?.message || 'Failed'); }
     };
 
-    const handleEdit = (row) => {
-        setForm({
-            ...row,
-            doctorId: row.doctorId || '',
-            patientId: row.patientId || '',
-            dateTime: row.dateTime ? row.dateTime.slice(0, 16) : '',
-            prescription: row.prescription || emptyPrescription
-        });
-        setEditingId(row.id);
-        setModalOpen(true);
+    // List rows omit notes, diagnosis and advice, so the form loads the full appointment
+    const handleEdit = async (row) => {
+        try {
+            const res = await appointmentApi.getById(row.id);
+            const appt = res.data.data;
+            setForm({
+                ...appt,
+                doctorId: appt.doctorId || '',
+                patientId: appt.patientId || '',
+                notes: appt.notes || '',
+                dateTime: appt.dateTime ? appt.dateTime.slice(0, 16) : '',
+                prescription: appt.prescription || emptyPrescription
+            });
+            setEditingId(row.id);
+            setModalOpen(true);
+        } catch (err) { alert(err.response?.data?.message || 'Failed'); }
     };
 
     const handleAddMedicine = () => {
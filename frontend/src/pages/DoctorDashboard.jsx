@@ -45,7 +45,7 @@ export default function DoctorDashboard() {
         { key: 'patientName', label: 'Patient' },
         { key: 'dateTime', label: 'Date/Time', render: (v) => v ? new Date(v).toLocaleString() : '-' },
         { key: 'status', label: 'Status', render: (v) => statusBadge(v) },
-        { key: 'notes', label: 'Notes', render: (v) => v || '-' },
+        { key: 'notesPreview', label: 'Notes', render: (v) => v || '-' },
         {
             key: '_actions', label: 'Action',
             render: (_, row) => row.status === 'BOOKED' ? (
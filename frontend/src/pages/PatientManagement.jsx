@@ -49,16 +49,23 @@ export default function PatientManagement() {
         }
     };
 
-    const handleEdit = (row) => {
-        setForm({
-            name: row.name || '',
-            age: row.age || '',
-            gender: row.gender || '',
-            contact: row.contact || '',
-            medicalHistory: row.medicalHistory || '',
-        });
-        setEditingId(row.id);
-        setModalOpen(true);
+    // List rows omit the medical history, so the form loads the full record
+    const handleEdit = async (row) => {
+        try {
+            const res = await patientApi.getById(row.id);
+            const patient = res.data.data;
+            setForm({
+                name: patient.name || '',
+                age: patient.age || '',
+                gender: patient.gender || '',
+                contact: patient.contact || '',
+                medicalHistory: patient.medicalHistory || '',
+            });
+            setEditingId(row.id);
+            setModalOpen(true);
+        } catch (err) {
+            alert(err.response?.data?.message || 'Failed to load patient');
+        }
     };
 
     const handleDelete = async (id) => {